@@ -0,0 +1,37 @@
+package com.first.todo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.Todo;
+import com.first.todo.model.TodoStatus;
+
+// deterministic fixtures shared by the benchmarks
+public final class BenchmarkData {
+
+    private static final TodoStatus[] STATUSES = TodoStatus.values();
+
+    private BenchmarkData() {
+    }
+
+    public static List<Todo> todos(int count) {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            todos.add(new Todo((long) i + 1, "Todo number " + i, "Description of todo number " + i,
+                    STATUSES[i % STATUSES.length], (long) (i % 100) + 1, null, now.minusMinutes(i), now, false, null, 0L));
+        }
+        return todos;
+    }
+
+    public static List<TodoResponseDto> responses(int count) {
+        List<TodoResponseDto> responses = new ArrayList<>(count);
+        for (Todo todo : todos(count)) {
+            responses.add(new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(),
+                    todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion()));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,56 @@
+package com.first.todo.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.first.todo.config.GcraRateLimiter;
+import com.first.todo.config.RateLimitProperties;
+
+// cost of the per-request rate limit check under contention: spread over many clients, and all on the global bucket
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private GcraRateLimiter limiter;
+    private RateLimitProperties.Limit limit;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = new GcraRateLimiter();
+        limit = new RateLimitProperties.Limit(1_000_000, 1_000_000);
+        keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "default|user:" + i;
+        }
+    }
+
+    @Benchmark
+    public long perClient() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(CLIENTS)], limit);
+    }
+
+    @Benchmark
+    public long sharedGlobal() {
+        return limiter.tryAcquire("global", limit);
+    }
+}
@@ -0,0 +1,113 @@
+package com.first.todo.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.first.todo.TodoApplication;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.Todo;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoRepo;
+
+/**
+ * Repository reads against the embedded H2 database, seeded with {@code rows} todos spread over 1000 users.
+ * Compares entity hydration (findByUserId + mapping) with the DTO projections TodoService uses.
+ * Larger tables: -Djmh.args="RepositoryRead -p rows=5000000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryReadBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int SEED_BATCH = 5000;
+    private static final TodoStatus[] STATUSES = TodoStatus.values();
+
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TodoRepo todoRepo;
+    private long nextUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+        todoRepo = context.getBean(TodoRepo.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TodoResponseDto> findByUserIdEntities() {
+        List<Todo> todos = todoRepo.findByUserId(nextUserId());
+        List<TodoResponseDto> response = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            response.add(new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(),
+                    todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion()));
+        }
+        return response;
+    }
+
+    @Benchmark
+    public List<TodoResponseDto> findByUserIdProjection() {
+        return todoRepo.findResponsesByUserId(nextUserId());
+    }
+
+    @Benchmark
+    public List<TodoResponseDto> keysetPage() {
+        long after = (nextUserId() * rows / USERS) % rows;
+        return todoRepo.findPageAfter(after, null, null, Limit.of(50));
+    }
+
+    private long nextUserId() {
+        nextUser = nextUser % USERS + 1;
+        return nextUser;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[] {(long) i, "Todo " + i, "Description of todo " + i,
+                    STATUSES[i % STATUSES.length].name(), (long) (i % USERS) + 1, now, now});
+            if (batch.size() == SEED_BATCH || i == rows) {
+                jdbcTemplate.batchUpdate("insert into todo (id, title, description, status, user_id, created_at, updated_at)"
+                        + " values (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
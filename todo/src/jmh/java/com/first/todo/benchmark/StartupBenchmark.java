@@ -0,0 +1,65 @@
+package com.first.todo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.first.todo.TodoApplication;
+import com.first.todo.config.StartupReport;
+
+/**
+ * Cold start of the whole application (web server included) until it is ready, once per fresh JVM, on the
+ * embedded database with the MySQL dialect. "update" is the development setup (ddl-auto=update, every bean
+ * created at startup), "prod" the prod profile (flyway migration, ddl-auto=validate, lazy beans). Each fork
+ * prints where its startup went (see StartupReport). AOT and CDS need the packaged jar, they are not measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    @Param({"update", "prod"})
+    public String startup;
+
+    private BufferingApplicationStartup steps;
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        steps = new BufferingApplicationStartup(TodoApplication.STARTUP_STEPS);
+        SpringApplicationBuilder application = new SpringApplicationBuilder(TodoApplication.class)
+                .applicationStartup(steps)
+                .properties("server.port=0", "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect");
+        if ("prod".equals(startup)) {
+            application.profiles("bench", "prod");
+        } else {
+            application.profiles("bench").properties("spring.jpa.hibernate.ddl-auto=update");
+        }
+        context = application.run();
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        System.out.println();
+        System.out.println(StartupReport.summary(steps.getBufferedTimeline(), 10));
+        context.close();
+    }
+}
@@ -0,0 +1,94 @@
+package com.first.todo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+
+import com.first.todo.TodoApplication;
+import com.first.todo.dto.TodoImportJobDto;
+import com.first.todo.repository.TodoRepo;
+import com.first.todo.service.TodoCsv;
+import com.first.todo.service.TodoImporter;
+
+/**
+ * Import throughput against the embedded H2 database, in rows per second: each invocation imports ROWS todos
+ * spread over 1000 users from an in-memory CSV or NDJSON body. The table is emptied before every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TodoImportBenchmark {
+
+    private static final int ROWS = 50_000;
+    private static final int USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private TodoImporter todoImporter;
+    private TodoRepo todoRepo;
+    private byte[] csv;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+        todoImporter = context.getBean(TodoImporter.class);
+        todoRepo = context.getBean(TodoRepo.class);
+        StringBuilder csvRows = new StringBuilder("title,description,status,userId\n");
+        StringBuilder ndjsonRows = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            long userId = i % USERS + 1;
+            csvRows.append("Todo ").append(i).append(",Description of todo ").append(i).append(",PENDING,").append(userId).append('\n');
+            ndjsonRows.append("{\"title\":\"Todo ").append(i).append("\",\"description\":\"Description of todo ").append(i)
+                    .append("\",\"status\":\"PENDING\",\"userId\":").append(userId).append("}\n");
+        }
+        csv = csvRows.toString().getBytes(StandardCharsets.UTF_8);
+        ndjson = ndjsonRows.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        todoRepo.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public TodoImportJobDto importCsv() throws IOException {
+        return todoImporter.importTodos(null, null, TodoCsv.MEDIA_TYPE, new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public TodoImportJobDto importNdjson() throws IOException {
+        return todoImporter.importTodos(null, null, MediaType.APPLICATION_NDJSON, new ByteArrayInputStream(ndjson));
+    }
+}
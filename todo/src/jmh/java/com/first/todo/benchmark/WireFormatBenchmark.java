@@ -0,0 +1,90 @@
+package com.first.todo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.first.todo.dto.TodoResponseDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * CPU to write and read a todo list per wire format, set up like WireFormatConfig. Payload sizes are printed
+ * once per trial, e.g. mvn -Pbenchmarks verify -Djmh.args="WireFormat -p size=1000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<TodoResponseDto>> TODO_LIST = new TypeReference<>() { };
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private boolean gzip;
+    private List<TodoResponseDto> todos;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule());
+        objectMapper = switch (format) {
+            case "smile" -> builder.factory(SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+        gzip = format.endsWith("gzip");
+        todos = BenchmarkData.responses(size);
+        payload = write();
+        System.out.printf("%n%s, %d todos: %d bytes%n", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        if (!gzip) {
+            return objectMapper.writeValueAsBytes(todos);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, todos);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<TodoResponseDto> read() throws IOException {
+        if (!gzip) {
+            return objectMapper.readValue(payload, TODO_LIST);
+        }
+        return objectMapper.readValue(new GZIPInputStream(new ByteArrayInputStream(payload)), TODO_LIST);
+    }
+}
@@ -0,0 +1,50 @@
+package com.first.todo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.first.todo.benchmark.BenchmarkData;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.Todo;
+
+// cost of turning entities into response DTOs, as done for every entity-based read in TodoService
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TodoMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Todo> todos;
+
+    @Setup
+    public void setUp() {
+        todos = BenchmarkData.todos(size);
+    }
+
+    @Benchmark
+    public List<TodoResponseDto> toResponseDtos() {
+        List<TodoResponseDto> response = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            response.add(TodoService.toResponseDto(todo));
+        }
+        return response;
+    }
+}
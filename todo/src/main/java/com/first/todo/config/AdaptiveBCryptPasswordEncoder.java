@@ -0,0 +1,73 @@
+package com.first.todo.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder whose cost can be calibrated to a time budget on the current host.
+ * {@link #upgradeEncoding} reports hashes with a lower cost, so Spring Security rehashes the
+ * password on the next successful login (through UserDetailsPasswordService). Stronger hashes
+ * are kept: a slower host must not weaken them, and hosts calibrated to different costs would
+ * otherwise rehash the same user back and forth.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    // never calibrate below the BCryptPasswordEncoder default
+    static final int MIN_CALIBRATED_STRENGTH = 10;
+    static final int MAX_CALIBRATED_STRENGTH = 14;
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = strengthOf(encodedPassword);
+        return stored > 0 && stored < strength;
+    }
+
+    // cost factor of a "$2a$10$..." hash, or -1 when it is not a BCrypt hash
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Highest cost whose single hash stays within the target on this host. Each extra round doubles
+     * the time, so measuring stops at the first cost over budget.
+     */
+    public static int calibrate(Duration target) {
+        int chosen = MIN_CALIBRATED_STRENGTH;
+        new BCryptPasswordEncoder(MIN_CALIBRATED_STRENGTH).encode("warm-up"); // JIT warm-up
+        for (int candidate = MIN_CALIBRATED_STRENGTH; candidate <= MAX_CALIBRATED_STRENGTH; candidate++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > target.toNanos()) {
+                break;
+            }
+            chosen = candidate;
+        }
+        log.info("BCrypt cost calibrated to {} for a target of {} ms per hash", chosen, target.toMillis());
+        return chosen;
+    }
+}
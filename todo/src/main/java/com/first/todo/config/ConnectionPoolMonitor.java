@@ -0,0 +1,52 @@
+package com.first.todo.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Samples the Hikari pools and warns when requests queue for a connection.
+ * With virtual threads there is no thread pool left to saturate, so a growing
+ * number of waiters means the connection pool (or the database) is the bottleneck.
+ */
+@Component
+public class ConnectionPoolMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+
+    private final List<HikariDataSource> dataSources;
+    private final MeterRegistry registry;
+
+    public ConnectionPoolMonitor(ObjectProvider<HikariDataSource> dataSources, MeterRegistry registry) {
+        this.dataSources = dataSources.orderedStream().toList();
+        this.registry = registry;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.pool-monitor.interval:30s}", initialDelayString = "${todo.pool-monitor.interval:30s}")
+    public void sample() {
+        for (HikariDataSource dataSource : dataSources) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool == null) {
+                continue; // pool not started yet
+            }
+            int waiting = pool.getThreadsAwaitingConnection();
+            if (waiting > 0) {
+                // alert on the rate of this counter; hikaricp.connections.pending has the raw waiter count
+                registry.counter("todo.datasource.pool.saturated", "pool", dataSource.getPoolName()).increment();
+                log.warn("Connection pool '{}' saturated: {} active of {}, {} threads waiting."
+                                + " Adding request threads will not help; raise maximum-pool-size if the database has headroom,"
+                                + " otherwise shorten transactions or shed load",
+                        dataSource.getPoolName(), pool.getActiveConnections(), dataSource.getMaximumPoolSize(), waiting);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.first.todo.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+
+/**
+ * Refuses to baseline a database that does not have the V1 schema. V1 is the whole mapping as the migration series
+ * started, so a database without migration history is only baselined at V1 (spring.flyway.baseline-on-migrate) when
+ * ddl-auto=update has already brought it there. One built by an older version of the application lacks the tables
+ * and columns added since, and would otherwise fail later in ddl-auto=validate with a less helpful message.
+ */
+final class FlywayBaselineCheck {
+
+    // tables of V1 and the todo columns added to the original schema
+    private static final List<String> TABLES = List.of("user", "todo", "todo_seq", "todo_archive", "todo_user_stats", "todo_import_job");
+    private static final Map<String, List<String>> COLUMNS = Map.of("todo", List.of("deleted", "deleted_at", "version"));
+
+    private FlywayBaselineCheck() {
+    }
+
+    static void requireBaselineSchema(Flyway flyway) {
+        if (flyway.info().current() != null) {
+            return; // already migrated or baselined
+        }
+        DataSource dataSource = flyway.getConfiguration().getDataSource();
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!tableExists(connection, metaData, "todo")) {
+                return; // empty database, V1 creates everything
+            }
+            for (String table : TABLES) {
+                if (!tableExists(connection, metaData, table)) {
+                    missing.add(table);
+                }
+            }
+            for (Map.Entry<String, List<String>> table : COLUMNS.entrySet()) {
+                for (String column : table.getValue()) {
+                    if (!columnExists(connection, metaData, table.getKey(), column)) {
+                        missing.add(table.getKey() + "." + column);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the schema before the flyway baseline", e);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("The database has no migration history and would be baselined at V1, but it"
+                    + " lacks " + missing + " of the V1 schema. Start the application once without the prod profile"
+                    + " (ddl-auto=update brings the schema to V1), then start it again with the prod profile.");
+        }
+    }
+
+    private static boolean tableExists(Connection connection, DatabaseMetaData metaData, String table) throws SQLException {
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), table, null)) {
+            return tables.next();
+        }
+    }
+
+    private static boolean columnExists(Connection connection, DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, column)) {
+            return columns.next();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.first.todo.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket in its GCRA form: each key keeps a single "theoretical arrival time" updated by CAS, so
+ * acquiring is lock-free and allocation-free once the key exists. ConcurrentHashMap stripes the keys,
+ * the hot path is one map lookup and usually one successful compareAndSet.
+ */
+public class GcraRateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public GcraRateLimiter() {
+        this(System::nanoTime);
+    }
+
+    GcraRateLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one permit for the key. Returns 0 when the request may proceed, otherwise the nanoseconds
+     * until the next permit is available (nothing is taken in that case).
+     */
+    public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long interval = (long) (1_000_000_000L / limit.getPermitsPerSecond());
+        long tolerance = interval * Math.max(0, limit.getBurst() - 1);
+        long now = nanoClock.getAsLong();
+        AtomicLong arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long theoretical = arrival.get();
+            long earliest = Math.max(theoretical, now);
+            if (earliest - now > tolerance) {
+                return earliest - tolerance - now;
+            }
+            if (arrival.compareAndSet(theoretical, earliest + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    // gives back a permit taken by tryAcquire, e.g. when a later check refused the request anyway
+    public void release(String key, RateLimitProperties.Limit limit) {
+        long interval = (long) (1_000_000_000L / limit.getPermitsPerSecond());
+        AtomicLong arrival = arrivals.get(key);
+        if (arrival != null) {
+            arrival.addAndGet(-interval);
+        }
+    }
+
+    // forgets keys whose bucket has refilled completely, they start over exactly as a new key would. The conditional
+    // remove leaves a key alone once another bucket replaced it; an acquire racing the removal took its permit from a
+    // full bucket, so at worst the client gets one permit more than a single bucket would give
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        arrivals.forEach((key, arrival) -> {
+            if (arrival.get() <= now) {
+                arrivals.remove(key, arrival);
+            }
+        });
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+}
@@ -0,0 +1,110 @@
+package com.first.todo.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects API requests over their rate with 429 and Retry-After before the request reaches a controller. It runs
+ * right after Spring Security, so clients are told apart by the authenticated principal (the token subject) and
+ * anonymous ones (login, sign up) by IP; a request parameter would let a caller spread its requests over any
+ * number of buckets, or drain someone else's.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String API_PREFIX = "/api/v1/";
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final RateLimitProperties properties;
+    private final GcraRateLimiter limiter;
+    private final MeterRegistry registry;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, new GcraRateLimiter(), registry);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, GcraRateLimiter limiter, MeterRegistry registry) {
+        this.properties = properties;
+        this.limiter = limiter;
+        this.registry = registry;
+        registry.gauge("todo.rate-limit.buckets", Tags.empty(), limiter, GcraRateLimiter::size);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimitProperties.Limit routeLimit = properties.getRoutes().get(path);
+        // unlisted paths share one bucket per client and one metric tag, so scanning random URLs cannot grow either
+        String route = routeLimit != null ? path : DEFAULT_ROUTE;
+        RateLimitProperties.Limit clientLimit = routeLimit != null ? routeLimit : properties.getDefaultLimit();
+
+        String clientKey = route + "|" + clientKey(request);
+        long wait = limiter.tryAcquire(clientKey, clientLimit);
+        String scope = "client";
+        if (wait == 0 && properties.getGlobal() != null) {
+            wait = limiter.tryAcquire("global", properties.getGlobal());
+            scope = "global";
+            if (wait > 0) {
+                // the request is not served, the client keeps its permit
+                limiter.release(clientKey, clientLimit);
+            }
+        }
+        if (wait > 0) {
+            registry.counter("todo.rate-limit.throttled", "route", route, "scope", scope).increment();
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.rate-limit.cleanup-interval:1m}", initialDelayString = "${todo.rate-limit.cleanup-interval:1m}")
+    public void evictIdleBuckets() {
+        limiter.evictIdle();
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        // behind a proxy, set server.forward-headers-strategy so this is the client and not the proxy
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(seconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry after " + seconds + " s");
+    }
+}
@@ -0,0 +1,38 @@
+package com.first.todo.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Limits for RateLimitFilter. Per-client limits apply per route and per client: the authenticated principal,
+ * or the client IP for anonymous requests. The optional global limit is shared by every request to the API
+ * on this instance.
+ */
+@Data
+@ConfigurationProperties("todo.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // limit of a client on routes that are not listed in routes
+    private Limit defaultLimit = new Limit(20, 40);
+    // off (null) unless set: a fixed default would cap an instance below what it can serve, set it from a load test
+    // of the instance (e.g. ConcurrentRequestsLoadTest) to shed load above its measured capacity
+    private Limit global;
+    // keyed by request path, e.g. todo.rate-limit.routes.[/api/v1/todo/createTodo].permits-per-second=5
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private double permitsPerSecond;
+        private int burst; // requests allowed back to back before the rate applies
+    }
+}
@@ -0,0 +1,136 @@
+package com.first.todo.config;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Remembers recent writes per user and per todo for a short window, reads of those go to the primary
+ * so a client never reads its own change back as missing from a lagging replica (and the todo cache
+ * is never refilled with the old row). Without a replica configured this changes nothing.
+ * <p>
+ * The memory is per instance. Behind a load balancer the client's next request may reach another
+ * instance, so with a replica a request that writes also gets a short-lived cookie (primary-until,
+ * the end of the window); every request carrying it reads from the primary on any instance. Clients
+ * that drop cookies, and writes made off the request thread (signups finish on the task executor),
+ * only get the per-instance guarantee.
+ */
+@Component
+public class ReadYourWrites {
+
+    static final String COOKIE = "primary-until";
+    private static final String COOKIE_SET = ReadYourWrites.class.getName() + ".COOKIE_SET";
+
+    private final Cache<String, Boolean> recentWrites;
+    private final Duration window;
+    private final boolean cookie;
+
+    @Autowired
+    public ReadYourWrites(@Value("${todo.datasource.read-your-writes-window:5s}") Duration window,
+                          @Value("${todo.datasource.replica.jdbc-url:}") String replicaUrl) {
+        this(window, Ticker.systemTicker(), !replicaUrl.isEmpty());
+    }
+
+    public ReadYourWrites(Duration window) {
+        this(window, Ticker.systemTicker(), false);
+    }
+
+    ReadYourWrites(Duration window, Ticker ticker, boolean cookie) {
+        this.window = window;
+        this.cookie = cookie && !window.isZero();
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    // names are the username and email the user can be looked up by
+    public void recordUserWrite(Long userId, String... names) {
+        markRequest();
+        if (userId != null) {
+            recentWrites.put("user:" + userId, Boolean.TRUE);
+        }
+        for (String name : names) {
+            if (name != null) {
+                recentWrites.put("name:" + name, Boolean.TRUE);
+            }
+        }
+    }
+
+    public void recordTodoWrite(Long todoId, Long userId) {
+        if (todoId != null) {
+            recentWrites.put("todo:" + todoId, Boolean.TRUE);
+        }
+        recordUserWrite(userId);
+    }
+
+    public <T> T readUser(Long userId, Supplier<T> read) {
+        return read("user:" + userId, read);
+    }
+
+    public <T> T readUserByName(String name, Supplier<T> read) {
+        return read("name:" + name, read);
+    }
+
+    public <T> T readTodo(Long todoId, Supplier<T> read) {
+        return read("todo:" + todoId, read);
+    }
+
+    private <T> T read(String key, Supplier<T> read) {
+        if (recentWrites.getIfPresent(key) != null || requestWroteRecently()) {
+            return ReplicaRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+
+    // the cookie is set once per writing request, on the response of the request thread
+    private void markRequest() {
+        if (!cookie || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || request.getAttribute(COOKIE_SET) != null) {
+            return;
+        }
+        request.setAttribute(COOKIE_SET, Boolean.TRUE);
+        long until = System.currentTimeMillis() + window.toMillis();
+        response.addHeader("Set-Cookie", ResponseCookie.from(COOKIE, Long.toString(until))
+                .path("/")
+                .httpOnly(true)
+                .maxAge(window.toSeconds() + 1)
+                .build()
+                .toString());
+    }
+
+    private boolean requestWroteRecently() {
+        if (!cookie || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        Cookie primaryUntil = WebUtils.getCookie(attributes.getRequest(), COOKIE);
+        if (primaryUntil == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(primaryUntil.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
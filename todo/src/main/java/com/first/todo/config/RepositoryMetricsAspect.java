@@ -0,0 +1,80 @@
+package com.first.todo.config;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many rows each repository method returned (or modified, for bulk updates and deletes)
+ * as todo.repository.rows. Invocation timings come from Spring Boot's spring.data.repository.invocations.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+    // per repository proxy class, then per method: inherited methods (findById, ...) are the same Method in every
+    // repository. Looked up without allocating, the builder and registry lookup only run on the first call
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, DistributionSummary>> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // this() rather than execution() so inherited JpaRepository methods such as findById are included
+    @Around("this(com.first.todo.repository.TodoRepo) || this(com.first.todo.repository.UserRepo)")
+    public Object recordRows(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        long rows = rows(result);
+        if (rows >= 0) {
+            summary(joinPoint.getThis(), ((MethodSignature) joinPoint.getSignature()).getMethod()).record(rows);
+        }
+        return result;
+    }
+
+    private DistributionSummary summary(Object repository, Method method) {
+        return summaries.computeIfAbsent(repository.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> DistributionSummary.builder("todo.repository.rows")
+                        .description("Rows returned or modified per repository call")
+                        .tag("repository", repositoryName(repository))
+                        .tag("method", m.getName())
+                        .register(registry));
+    }
+
+    private static String repositoryName(Object repository) {
+        for (Class<?> type : repository.getClass().getInterfaces()) {
+            if (type.getPackageName().equals("com.first.todo.repository")) {
+                return type.getSimpleName();
+            }
+        }
+        return repository.getClass().getSimpleName();
+    }
+
+    // -1 for results that are not row based (booleans, streams consumed later, void)
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer count) {
+            return count;
+        }
+        return -1;
+    }
+}
@@ -1,23 +1,44 @@
 package com.first.todo.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import jakarta.servlet.DispatcherType;
 
+import java.time.Duration;
+
+
+@Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+
+    // admin-only in both security modes
+    private static final String[] ADMIN_ENDPOINTS = {
+            "/api/v1/todo/rebuildSearchIndex", "/api/v1/todo/archiveTodos", "/api/v1/user/getUsers"
+    };
+
+    // todo.security.mode=form: server-side sessions with form login, needs sticky sessions behind a load balancer
     @Bean
+    @ConditionalOnProperty(name = "todo.security.mode", havingValue = "form")
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authorize -> authorize
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Health checks and metric scraping
+                .requestMatchers(ADMIN_ENDPOINTS).hasRole("ADMIN")
                 .requestMatchers("/api/v1/**").permitAll() // Allow all requests to the todo API
                 .requestMatchers("/api/v1/user/**").hasRole("USER") // Allow all requests to the user API
                 .anyRequest().authenticated() // All other requests require authentication
@@ -37,20 +58,45 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // todo.security.mode=jwt (default): no session, every request carries a bearer token validated in memory
+    @Bean
+    @ConditionalOnProperty(name = "todo.security.mode", havingValue = "jwt", matchIfMissing = true)
+    public SecurityFilterChain statelessSecurityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder,
+                                                            JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
+        http
+            .csrf(csrf -> csrf.disable()) // no cookies, so nothing for a cross-site request to ride on
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(authorize -> authorize
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll() // already authorized on the request itself
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Health checks and metric scraping
+                .requestMatchers("/api/v1/auth/**", "/api/v1/user/register").permitAll() // Login, token refresh and sign up
+                .requestMatchers(ADMIN_ENDPOINTS).hasRole("ADMIN")
+                .anyRequest().authenticated()
+            )
+            .oauth2ResourceServer(resourceServer -> resourceServer
+                .jwt(jwt -> jwt.decoder(jwtDecoder).jwtAuthenticationConverter(jwtAuthenticationConverter))
+            );
+
+        return http.build();
+    }
+
+    // password logins against the user table; hashes with an outdated cost are rewritten on success
     @Bean
-    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
-        UserDetails user = User.withUsername("user")
-                .password(passwordEncoder.encode("password"))
-                .roles("USER")
-                .build();
-
-        return new InMemoryUserDetailsManager(user);
-       
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+                                                       UserDetailsPasswordService userDetailsPasswordService,
+                                                       PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
+        return new ProviderManager(provider);
     }
 
 
+    // todo.security.bcrypt.strength=0 calibrates the cost to todo.security.bcrypt.target-time at startup
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${todo.security.bcrypt.strength:0}") int strength,
+                                           @Value("${todo.security.bcrypt.target-time:250ms}") Duration targetTime) {
+        int cost = strength > 0 ? strength : AdaptiveBCryptPasswordEncoder.calibrate(targetTime);
+        return new AdaptiveBCryptPasswordEncoder(cost);
     }
 }
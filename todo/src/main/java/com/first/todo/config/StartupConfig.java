@@ -0,0 +1,68 @@
+package com.first.todo.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.first.todo.TodoApplication;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Beans kept eager under spring.main.lazy-initialization (the prod profile). Everything else is created on first use.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final String APPLICATION_PACKAGE = TodoApplication.class.getPackageName() + ".";
+
+    /**
+     * A lazy bean with @Scheduled methods would only start its schedule on first use, maybe never.
+     * The migration and the entity manager factory stay eager so the schema is migrated and validated
+     * before the instance reports ready, not on the first request, and so does the todo id sequence seeding.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (Flyway.class.isAssignableFrom(beanType)
+                || FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)
+                || TodoIdSequenceSeeder.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType));
+    }
+
+    // the CDS training run (spring.context.exit=onRefresh, see the cds build profile) only builds the context,
+    // it has no database to migrate; with AOT the flyway beans exist whatever spring.flyway.enabled says at runtime.
+    // Databases about to be baselined are checked for the V1 schema first (see FlywayBaselineCheck)
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.context.exit:}") String contextExit) {
+        return flyway -> {
+            if (!"onRefresh".equals(contextExit)) {
+                FlywayBaselineCheck.requireBaselineSchema(flyway);
+                flyway.migrate();
+            }
+        };
+    }
+
+    // only the application's own classes schedule anything, no need to walk the methods of every framework bean
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        if (!beanType.getName().startsWith(APPLICATION_PACKAGE)) {
+            return false;
+        }
+        Map<Method, Scheduled> scheduled = MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Scheduled>) method -> AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class));
+        return !scheduled.isEmpty();
+    }
+}
@@ -0,0 +1,85 @@
+package com.first.todo.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs where the startup went once the application is ready: time per kind of step and the slowest single
+ * steps (bean creations mostly). Times are the steps' own time, without the nested steps they waited for,
+ * so they add up to the startup. Needs the buffering startup recorder set in TodoApplication.main and
+ * todo.startup.report-steps above 0.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private final ApplicationStartup applicationStartup;
+    private final int steps;
+
+    public StartupReport(ApplicationStartup applicationStartup, @Value("${todo.startup.report-steps:0}") int steps) {
+        this.applicationStartup = applicationStartup;
+        this.steps = steps;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (steps > 0 && applicationStartup instanceof BufferingApplicationStartup buffering) {
+            log.info("Started in {} ms\n{}", event.getTimeTaken().toMillis(), summary(buffering.getBufferedTimeline(), steps));
+        }
+    }
+
+    public static String summary(StartupTimeline timeline, int limit) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+        Map<Long, Duration> ownTimes = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            ownTimes.put(event.getStartupStep().getId(), event.getDuration());
+        }
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null && ownTimes.containsKey(parentId)) {
+                ownTimes.merge(parentId, event.getDuration().negated(), Duration::plus);
+            }
+        }
+
+        Map<String, Duration> byName = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            byName.merge(event.getStartupStep().getName(), ownTimes.get(event.getStartupStep().getId()), Duration::plus);
+        }
+        StringBuilder summary = new StringBuilder("By step:");
+        byName.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> summary.append(String.format("%n%8d ms  %s", entry.getValue().toMillis(), entry.getKey())));
+
+        List<StartupTimeline.TimelineEvent> slowest = new ArrayList<>(events);
+        slowest.sort(Comparator.comparing((StartupTimeline.TimelineEvent event) -> ownTimes.get(event.getStartupStep().getId())).reversed());
+        summary.append(String.format("%nSlowest steps:"));
+        slowest.stream().limit(limit).forEach(event -> summary.append(String.format("%n%8d ms  %s %s",
+                ownTimes.get(event.getStartupStep().getId()).toMillis(), event.getStartupStep().getName(), tags(event.getStartupStep()))));
+        return summary.toString();
+    }
+
+    private static String tags(StartupStep step) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        step.getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+        return tags.entrySet().stream().map(tag -> tag.getKey() + "=" + tag.getValue()).collect(Collectors.joining(" "));
+    }
+}
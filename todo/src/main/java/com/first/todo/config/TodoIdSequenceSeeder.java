@@ -0,0 +1,65 @@
+package com.first.todo.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.first.todo.model.Todo;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Moves todo_seq past the ids already in todo and todo_archive. Databases from before the pooled sequence hold
+ * IDENTITY ids 1..N while the sequence table (created by ddl-auto=update or by V1) starts at 1, so new todos
+ * would collide with them. Runs on every start in every profile, after the schema is in place and before the
+ * web server takes requests; it never moves the sequence back, so instances starting next to running ones are safe.
+ * Databases with real sequences (the embedded test database) have no such history and are left alone.
+ */
+@Component
+public class TodoIdSequenceSeeder implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoIdSequenceSeeder.class);
+
+    // the pooled optimizer hands out next_val - allocationSize + 1 .. next_val from one read, so next_val has to be
+    // a whole allocation above the highest id in use
+    private static final String SEED = "update todo_seq set next_val = greatest(next_val,"
+            + " (select coalesce(max(id), 0) + ? from todo),"
+            + " (select coalesce(max(id), 0) + ? from todo_archive))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String contextExit;
+
+    // the entity manager factory creates (dev) or validates (prod) the schema first
+    public TodoIdSequenceSeeder(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                @Value("${spring.context.exit:}") String contextExit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.contextExit = contextExit;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // the CDS training run has no database (see StartupConfig)
+        if (!"onRefresh".equals(contextExit) && sequenceIsTable()) {
+            seed();
+        }
+    }
+
+    public int seed() {
+        int rows = jdbcTemplate.update(SEED, Todo.ID_ALLOCATION_SIZE, Todo.ID_ALLOCATION_SIZE);
+        if (rows == 0) {
+            log.warn("todo_seq has no row, todo ids cannot be allocated");
+        }
+        return rows;
+    }
+
+    private boolean sequenceIsTable() {
+        return !entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().supportsSequences();
+    }
+}
@@ -0,0 +1,46 @@
+package com.first.todo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns when virtual threads are asked for (the "virtual" profile) on a runtime without them. Spring Boot then
+ * silently keeps the platform thread pools, while the profile's connection and pool settings still apply.
+ */
+@Component
+public class VirtualThreadsCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    static final int MINIMUM_FEATURE_VERSION = 21;
+
+    private final boolean virtualThreadsEnabled;
+    private final int runtimeVersion;
+
+    @Autowired
+    public VirtualThreadsCheck(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        this(virtualThreadsEnabled, Runtime.version().feature());
+    }
+
+    VirtualThreadsCheck(boolean virtualThreadsEnabled, int runtimeVersion) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.runtimeVersion = runtimeVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (isIgnored()) {
+            log.warn("spring.threads.virtual.enabled is set but the runtime is Java {}, virtual threads need {}+;"
+                    + " requests run on the platform thread pools", runtimeVersion, MINIMUM_FEATURE_VERSION);
+        }
+    }
+
+    boolean isIgnored() {
+        return virtualThreadsEnabled && runtimeVersion < MINIMUM_FEATURE_VERSION;
+    }
+}
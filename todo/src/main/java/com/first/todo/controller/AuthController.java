@@ -0,0 +1,42 @@
+package com.first.todo.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.first.todo.dto.LoginRequestDto;
+import com.first.todo.dto.RefreshTokenRequestDto;
+import com.first.todo.dto.TokenResponseDto;
+import com.first.todo.service.JwtTokenService;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@ConditionalOnProperty(name = "todo.security.mode", havingValue = "jwt", matchIfMissing = true)
+public class AuthController {
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    public AuthController(JwtTokenService jwtTokenService) {
+        this.jwtTokenService = jwtTokenService;
+    }
+
+    //log in with username and password, returns an access token and a refresh token
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<TokenResponseDto>> login(@RequestBody LoginRequestDto loginRequestDto) {
+        return jwtTokenService.login(loginRequestDto.getUsername(), loginRequestDto.getPassword())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    //new access and refresh token for a valid refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDto> refresh(@RequestBody RefreshTokenRequestDto refreshTokenRequestDto) {
+        return ResponseEntity.ok(jwtTokenService.refresh(refreshTokenRequestDto.getRefreshToken()));
+    }
+}
@@ -3,15 +3,41 @@ package com.first.todo.controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.first.todo.service.TodoService;  
+import com.first.todo.service.TodoETags;
+import com.first.todo.service.TodoArchiver;
+import com.first.todo.service.TodoCsv;
+import com.first.todo.service.TodoImporter;
+import com.first.todo.event.TodoEventStreams;
+import com.first.todo.search.TodoSearchIndex;
 import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoSyncResponseDto;
 import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.CacheStatsDto;
+import com.first.todo.dto.TodoBatchRequestDto;
+import com.first.todo.dto.TodoBatchResultDto;
+import com.first.todo.dto.TodoPageResponseDto;
+import com.first.todo.dto.TodoImportJobDto;
+import com.first.todo.model.TodoStatus;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 
 
 
@@ -22,22 +48,126 @@ public class TodoController {
 
     @Autowired
     private TodoService todoService;
-    public TodoController(TodoService todoService) {
+    @Autowired
+    private TodoEventStreams todoEventStreams;
+    @Autowired
+    private TodoSearchIndex todoSearchIndex;
+    @Autowired
+    private TodoImporter todoImporter;
+    @Autowired
+    private TodoArchiver todoArchiver;
+    public TodoController(TodoService todoService, TodoEventStreams todoEventStreams, TodoSearchIndex todoSearchIndex,
+                          TodoImporter todoImporter, TodoArchiver todoArchiver) {
         this.todoService = todoService;
+        this.todoEventStreams = todoEventStreams;
+        this.todoSearchIndex = todoSearchIndex;
+        this.todoImporter = todoImporter;
+        this.todoArchiver = todoArchiver;
     }
     
-    //get all todos
+    //get all todos (loads the whole table, use getTodos or exportTodos)
+    @Deprecated
     @GetMapping("/getAllTodos")
     public ResponseEntity<List<TodoResponseDto>> getAllTodos() {
         List<TodoResponseDto> todos = todoService.getAllTodos();
         return ResponseEntity.ok(todos);
     }
 
-    //get todo by id
+    //get todos page by page, pass the returned nextCursor as "after" to get the next page; includeArchived adds archived todos
+    @GetMapping("/getTodos")
+    public ResponseEntity<TodoPageResponseDto> getTodos(@RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) TodoStatus status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        TodoPageResponseDto page = todoService.getTodosPage(after, size, status, userId, includeArchived);
+        return ResponseEntity.ok(page);
+    }
+
+    //export todos as newline delimited json (or csv with format=csv), streamed row by row
+    @GetMapping("/exportTodos")
+    public ResponseEntity<StreamingResponseBody> exportTodos(@RequestParam(required = false) TodoStatus status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> todoService.exportTodosCsv(status, userId, out);
+            return ResponseEntity.ok()
+                    .contentType(TodoCsv.MEDIA_TYPE)
+                    .body(body);
+        }
+        StreamingResponseBody body = out -> todoService.exportTodos(status, userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    //start an import job; userId owns the imported rows that do not name a user
+    @PostMapping("/createImportJob")
+    public ResponseEntity<TodoImportJobDto> createImportJob(@RequestParam(required = false) Long userId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(todoImporter.createImportJob(userId));
+    }
+
+    //import todos from a csv or ndjson body, read while it is uploaded; send the same body again with jobId to resume a failed upload
+    @PostMapping(value = "/importTodos", consumes = {TodoCsv.MEDIA_TYPE_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<TodoImportJobDto> importTodos(@RequestParam(required = false) Long jobId,
+            @RequestParam(required = false) Long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(todoImporter.importTodos(jobId, userId, MediaType.parseMediaType(contentType), body));
+    }
+
+    //progress of an import job, can be polled while the upload runs
+    @GetMapping("/getImportJob")
+    public ResponseEntity<TodoImportJobDto> getImportJob(@RequestParam Long jobId) {
+        return ResponseEntity.ok(todoImporter.getImportJob(jobId));
+    }
+
+    //changes since a sync token (null = from the start): changed todos, deleted and archived ids and the token for the next call
+    @GetMapping("/syncTodos")
+    public ResponseEntity<TodoSyncResponseDto> syncTodos(@RequestParam Long userId,
+                                                         @RequestParam(required = false) String since,
+                                                         @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(todoService.syncTodos(userId, since, size));
+    }
+
+    //server-sent events for the todos of a user (created, updated, deleted), pushed after each commit
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter todoEvents(@RequestParam Long userId) {
+        return todoEventStreams.open(userId);
+    }
+
+    //full-text search in the titles and descriptions of a user's todos, best match first; words match as prefixes too
+    @GetMapping("/searchTodos")
+    public ResponseEntity<List<TodoResponseDto>> searchTodos(@RequestParam Long userId, @RequestParam String q,
+                                                             @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(todoService.searchTodos(userId, q, size));
+    }
+
+    //rebuild the search index from the database (admin), answers with the number of indexed todos
+    @PostMapping("/rebuildSearchIndex")
+    public CompletableFuture<ResponseEntity<Integer>> rebuildSearchIndex() {
+        return todoSearchIndex.rebuild().thenApply(ResponseEntity::ok);
+    }
+
+    //move long-completed todos to the archive now instead of waiting for the schedule (admin), answers with the number moved
+    @PostMapping("/archiveTodos")
+    public ResponseEntity<Integer> archiveTodos() {
+        return ResponseEntity.ok(todoArchiver.archive());
+    }
+
+    //get todo by id (archived ones too with includeArchived), answers 304 when the If-None-Match ETag is still current
     @GetMapping("/getTodoById") 
-    public ResponseEntity<TodoResponseDto> getTodoById(@RequestParam Long id) {
-        TodoResponseDto todo = todoService.getTodoById(id);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity<TodoResponseDto> getTodoById(@RequestParam Long id,
+            @RequestParam(defaultValue = "false") boolean includeArchived, WebRequest request) {
+        TodoResponseDto todo = todoService.getTodoById(id, includeArchived);
+        String eTag = TodoETags.of(todo);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(todo);
     }
 
     //create todo
@@ -47,13 +177,47 @@ public class TodoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(todo);
     }
 
-    //update todo
+    //update todo; pass the version of the todo you edited to get 409 instead of overwriting a newer change
     @GetMapping("/updateTodo")
-    public ResponseEntity<TodoResponseDto> updateTodo(@RequestParam Long id, @RequestBody TodoRequestDto todoRequestDto) {
-        TodoResponseDto todo = todoService.updateTodo(id, todoRequestDto);
+    public ResponseEntity<TodoResponseDto> updateTodo(@RequestParam Long id, @RequestParam(required = false) Long version,
+            @RequestBody TodoRequestDto todoRequestDto) {
+        TodoResponseDto todo = todoService.updateTodo(id, todoRequestDto, version);
         return ResponseEntity.ok(todo);
     }
 
+    //change only the fields sent in the body, the others are left as they are; 409 on a version mismatch
+    @PatchMapping("/patchTodo")
+    public ResponseEntity<TodoResponseDto> patchTodo(@RequestParam Long id, @RequestParam(required = false) Long version,
+            @RequestBody TodoRequestDto patch) {
+        TodoResponseDto todo = todoService.patchTodo(id, patch, version);
+        return ResponseEntity.ok(todo);
+    }
+
+    //change only the status; 202 without a body when status updates are buffered (todo.status-write-behind.enabled),
+    //a status change with a version is conditional and never buffered
+    @PostMapping("/updateTodoStatus")
+    public ResponseEntity<TodoResponseDto> updateTodoStatus(@RequestParam Long id, @RequestParam TodoStatus status,
+            @RequestParam(required = false) Long version) {
+        TodoResponseDto todo = todoService.updateTodoStatus(id, status, version);
+        if (todo == null) {
+            return ResponseEntity.accepted().build();
+        }
+        return ResponseEntity.ok(todo);
+    }
+
+    //apply many create/update/delete operations in one transaction, results are returned per operation
+    @PostMapping("/batch")
+    public ResponseEntity<List<TodoBatchResultDto>> applyBatch(@RequestBody TodoBatchRequestDto batchRequestDto) {
+        List<TodoBatchResultDto> results = todoService.applyBatch(batchRequestDto.getOperations());
+        return ResponseEntity.ok(results);
+    }
+
+    //hit, miss and eviction counters of the todo caches
+    @GetMapping("/cacheStats")
+    public ResponseEntity<Map<String, CacheStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(todoService.getCacheStats());
+    }
+
     //delete todo
     @GetMapping("/deleteTodo")
     public ResponseEntity<Void> deleteTodo(@RequestParam Long id) {
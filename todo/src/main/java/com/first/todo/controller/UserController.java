@@ -4,8 +4,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RestController;
 import com.first.todo.service.UserService;
 import com.first.todo.service.TodoService;
+import com.first.todo.service.TodoETags;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,9 +18,12 @@ import com.first.todo.dto.UserResponseDto;
 import com.first.todo.dto.UserRequestDto;
 import com.first.todo.model.Role;
 import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoStatsDto;
+import com.first.todo.dto.UserSummaryDto;
+import com.first.todo.dto.UserWithTodosDto;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import com.first.todo.dto.TodoRequestDto;
-import com.first.todo.model.User;
 
 
 @RestController
@@ -33,20 +41,41 @@ public class UserController {
     }
 
 
-    //create user
+    //create user (completes asynchronously once the password is hashed)
     @PostMapping("/register")
-    public ResponseEntity<UserResponseDto> registerUser(@RequestBody UserRequestDto userRequestDto) {
-        UserResponseDto userResponseDto = userService.registerUser(userRequestDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(userResponseDto);
+    public CompletableFuture<ResponseEntity<UserResponseDto>> registerUser(@RequestBody UserRequestDto userRequestDto) {
+        return userService.registerUser(userRequestDto)
+                .thenApply(userResponseDto -> ResponseEntity.status(HttpStatus.CREATED).body(userResponseDto));
     }
 
     //get user by id
     @PostMapping("/getUserById")
-    public ResponseEntity<User> getUserById(@RequestBody Long id) {
-        User user = userService.getUserById(id);
+    public ResponseEntity<UserResponseDto> getUserById(@RequestBody Long id) {
+        UserResponseDto user = userService.getUserById(id);
         return ResponseEntity.ok(user);
     }
 
+    //get a user with all of their todos, loaded with one query
+    @GetMapping("/getUserWithTodos")
+    public ResponseEntity<UserWithTodosDto> getUserWithTodos(@RequestParam Long userId) {
+        return ResponseEntity.ok(userService.getUserWithTodos(userId));
+    }
+
+    //get a user with one page of their todos, pass the returned nextCursor as "after" to get the next page
+    @GetMapping("/getUserWithTodosPage")
+    public ResponseEntity<UserWithTodosDto> getUserWithTodosPage(@RequestParam Long userId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getUserWithTodosPage(userId, after, size));
+    }
+
+    //list users with their todo counts (admin), page by page on the user id
+    @GetMapping("/getUsers")
+    public ResponseEntity<List<UserSummaryDto>> getUsers(@RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getUserSummaries(after, size));
+    }
+
     //get all todos by user id
     @PostMapping("/getTodosByUserId")
     public ResponseEntity<List<TodoResponseDto>> getTodosByUserId(@RequestBody Long userId) {
@@ -54,13 +83,38 @@ public class UserController {
         return ResponseEntity.ok(todos);
     }
 
+    //get all todos by user id for polling clients: 304 from a cheap version check when nothing changed;
+    //includeArchived adds the archived todos, without ETag
+    @GetMapping("/getTodosByUserId")
+    public ResponseEntity<List<TodoResponseDto>> getTodosByUserId(@RequestParam Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived, WebRequest request) {
+        if (includeArchived) {
+            return ResponseEntity.ok(todoService.getTodosByUserId(userId, true));
+        }
+        if (request.checkNotModified(todoService.getTodosETag(userId))) {
+            return null;
+        }
+        List<TodoResponseDto> todos = todoService.getTodosByUserId(userId);
+        return ResponseEntity.ok()
+                .eTag(TodoETags.of(userId, todos)) // from the list actually returned, in case it changed meanwhile
+                .cacheControl(CacheControl.noCache())
+                .body(todos);
+    }
+
+    //todo counts per status and completion rate of a user, for dashboards; includeArchived counts archived todos too
+    @GetMapping("/getTodoStats")
+    public ResponseEntity<TodoStatsDto> getTodoStats(@RequestParam Long userId,
+                                                     @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(todoService.getTodoStats(userId, includeArchived));
+    }
+
     //update user
     @PostMapping("/updateUser")
-    public ResponseEntity<UserResponseDto> updateUser(@RequestBody UserRequestDto userRequestDto, @RequestBody Long id) {
+    public CompletableFuture<ResponseEntity<UserResponseDto>> updateUser(@RequestBody UserRequestDto userRequestDto, @RequestBody Long id) {
         // Assuming the UserRequestDto contains an id field
     
-        UserResponseDto userResponseDto = userService.updateUser(id, userRequestDto);
-        return ResponseEntity.ok(userResponseDto);
+        return userService.updateUser(id, userRequestDto)
+                .thenApply(ResponseEntity::ok);
     }
     
     //delete user
@@ -0,0 +1,17 @@
+package com.first.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+    private long size;
+}
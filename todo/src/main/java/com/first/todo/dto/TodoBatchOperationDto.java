@@ -0,0 +1,20 @@
+package com.first.todo.dto;
+
+import com.first.todo.model.TodoStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchOperationDto {
+
+    private TodoBatchOperationType type;
+    private Long id; // required for UPDATE and DELETE
+    private Long userId; // required for CREATE
+    private String title;
+    private String description;
+    private TodoStatus status;
+}
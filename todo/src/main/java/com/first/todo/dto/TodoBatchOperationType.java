@@ -0,0 +1,7 @@
+package com.first.todo.dto;
+
+public enum TodoBatchOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,15 @@
+package com.first.todo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchRequestDto {
+
+    private List<TodoBatchOperationDto> operations;
+}
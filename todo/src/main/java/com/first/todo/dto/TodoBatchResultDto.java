@@ -0,0 +1,18 @@
+package com.first.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchResultDto {
+
+    private int index; // position of the operation in the request
+    private TodoBatchOperationType type;
+    private Long id;
+    private boolean success;
+    private String error; // null when success is true
+    private TodoResponseDto todo; // resulting todo for CREATE and UPDATE
+}
@@ -0,0 +1,30 @@
+package com.first.todo.dto;
+
+import java.time.LocalDateTime;
+
+import com.first.todo.model.TodoStatus;
+
+// one row of a delta sync, tombstones included (read with a native query, so this is a projection interface)
+public interface TodoChangeView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    TodoStatus getStatus();
+
+    Long getUserId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Boolean getDeleted();
+
+    // the id again when the tombstone marks an archival rather than a deletion, else null
+    Long getArchivedId();
+
+    Long getVersion();
+}
@@ -0,0 +1,25 @@
+package com.first.todo.dto;
+
+import java.time.LocalDateTime;
+
+import com.first.todo.model.TodoImportStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportJobDto {
+
+    private Long id;
+    private Long userId;
+    private TodoImportStatus status;
+    private long rowsRead; // rows committed so far, an upload resuming the job starts after them
+    private long rowsImported;
+    private long rowsRejected;
+    private String lastError; // "row N: reason" of the last rejected row, or why the upload failed
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
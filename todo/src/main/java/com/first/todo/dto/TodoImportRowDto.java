@@ -0,0 +1,20 @@
+package com.first.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one CSV line or NDJSON object of an import; other columns (id, createdAt, ... of an export) are ignored
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TodoImportRowDto {
+
+    private String title;
+    private String description;
+    private String status; // kept as text so an unknown status rejects the row instead of failing the upload
+    private Long userId; // defaults to the user of the import job
+}
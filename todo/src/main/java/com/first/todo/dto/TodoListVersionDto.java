@@ -0,0 +1,17 @@
+package com.first.todo.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// cheap fingerprint of a user's todo list: changes whenever a todo is added, removed or updated
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoListVersionDto {
+
+    private Long count;
+    private LocalDateTime lastUpdatedAt; // null when the list is empty
+}
@@ -0,0 +1,17 @@
+package com.first.todo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoPageResponseDto {
+
+    private List<TodoResponseDto> todos;
+    private Long nextCursor; // id to pass as "after" for the next page, null when there is no next page
+    private boolean hasMore;
+}
@@ -5,6 +5,8 @@ import java.time.LocalDateTime;
 import com.first.todo.model.TodoStatus;
 import com.first.todo.model.User;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +14,8 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// the fields inherited from User are always empty on a todo, they only cost bytes on the wire
+@JsonIgnoreProperties({"userName", "email", "password", "todos", "role"})
 public class TodoResponseDto extends User {
      
     private Long id;
@@ -21,4 +25,5 @@ public class TodoResponseDto extends User {
     private Long userId; // Assuming userId is a Long type
     private LocalDateTime createdAt; // Assuming createdAt is a string representation of the date
     private LocalDateTime UpdatedAt; // Assuming updatedAt is a string representation of the date
+    private Long version; // send it back with an update to have it rejected with 409 if the todo changed meanwhile
 }
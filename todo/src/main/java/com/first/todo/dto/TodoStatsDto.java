@@ -0,0 +1,20 @@
+package com.first.todo.dto;
+
+import java.util.Map;
+
+import com.first.todo.model.TodoStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoStatsDto {
+
+    private Long userId;
+    private long total;
+    private Map<TodoStatus, Long> byStatus; // every status, zero included
+    private double completionRate; // completed / total, 0 without todos
+}
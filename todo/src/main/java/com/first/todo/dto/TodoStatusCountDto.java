@@ -0,0 +1,17 @@
+package com.first.todo.dto;
+
+import com.first.todo.model.TodoStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one group of the per-user GROUP BY status query
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoStatusCountDto {
+
+    private TodoStatus status; // null for todos without a status
+    private Long count;
+}
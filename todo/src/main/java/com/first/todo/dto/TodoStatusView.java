@@ -0,0 +1,13 @@
+package com.first.todo.dto;
+
+import com.first.todo.model.TodoStatus;
+
+// owner and current status of a todo, read under a row lock before a bulk status change (see TodoStatsCounters)
+public interface TodoStatusView {
+
+    Long getId();
+
+    Long getUserId();
+
+    TodoStatus getStatus();
+}
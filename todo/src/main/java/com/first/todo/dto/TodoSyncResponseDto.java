@@ -0,0 +1,19 @@
+package com.first.todo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoSyncResponseDto {
+
+    private List<TodoResponseDto> changed; // created or updated since the token
+    private List<Long> deleted; // ids deleted since the token
+    private List<Long> archived; // ids archived since the token, still readable with includeArchived
+    private String nextToken; // pass as "since" on the next sync, also when hasMore is false
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.first.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponseDto {
+
+    private String accessToken; // send as "Authorization: Bearer <accessToken>"
+    private String refreshToken; // exchange at /api/v1/auth/refresh once the access token expires
+    private String tokenType;
+    private long expiresIn; // seconds until the access token expires
+}
@@ -0,0 +1,20 @@
+package com.first.todo.dto;
+
+import com.first.todo.model.Role;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one row of the admin user listing, todoCount comes from the same aggregate query
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+
+    private Long id;
+    private String userName;
+    private String email;
+    private Role role;
+    private Long todoCount;
+}
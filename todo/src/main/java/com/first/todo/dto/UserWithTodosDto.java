@@ -0,0 +1,18 @@
+package com.first.todo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserWithTodosDto {
+
+    private UserResponseDto user;
+    private List<TodoResponseDto> todos;
+    private Long nextCursor; // id to pass as "after" for the next page, null on the last page
+    private boolean hasMore;
+}
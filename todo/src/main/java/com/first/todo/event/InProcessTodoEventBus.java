@@ -0,0 +1,81 @@
+package com.first.todo.event;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Delivers events to subscribers on a small dedicated pool, so the request that committed the change
+ * does not wait for subscribers and a burst of events cannot take the shared task executor. Subscribers
+ * must not block (TodoEventStreams only queues the event for its own senders). When the bounded queue
+ * is full the publishing thread delivers the event itself rather than losing it.
+ */
+@Component
+public class InProcessTodoEventBus implements TodoEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessTodoEventBus.class);
+
+    private final Map<Long, Set<Consumer<TodoChangedEvent>>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public InProcessTodoEventBus(MeterRegistry registry,
+                                 @Value("${todo.events.delivery-threads:2}") int threads,
+                                 @Value("${todo.events.delivery-queue-capacity:10000}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "todo-event-delivery-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(registry, pool, "todo.events.delivery");
+    }
+
+    @Override
+    public void publish(TodoChangedEvent event) {
+        Set<Consumer<TodoChangedEvent>> userSubscribers = subscribers.get(event.getUserId());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            for (Consumer<TodoChangedEvent> subscriber : userSubscribers) {
+                try {
+                    subscriber.accept(event);
+                } catch (RuntimeException e) {
+                    log.debug("Todo event subscriber of user {} failed", event.getUserId(), e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Subscription subscribe(Long userId, Consumer<TodoChangedEvent> subscriber) {
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return () -> subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
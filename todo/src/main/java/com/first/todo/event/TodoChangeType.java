@@ -0,0 +1,7 @@
+package com.first.todo.event;
+
+public enum TodoChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,18 @@
+package com.first.todo.event;
+
+import com.first.todo.dto.TodoResponseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChangedEvent {
+
+    private TodoChangeType type;
+    private Long todoId;
+    private Long userId;
+    private TodoResponseDto todo; // state after the change, null for DELETED
+}
@@ -0,0 +1,19 @@
+package com.first.todo.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Fan-out of committed todo changes to the subscribers of a user. The in-process implementation only
+ * reaches subscribers connected to this instance; a broker-backed one (Redis pub/sub, Kafka, ...) can
+ * replace it without touching publishers or subscribers.
+ */
+public interface TodoEventBus {
+
+    void publish(TodoChangedEvent event);
+
+    Subscription subscribe(Long userId, Consumer<TodoChangedEvent> subscriber);
+
+    interface Subscription {
+        void cancel();
+    }
+}
@@ -0,0 +1,23 @@
+package com.first.todo.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// forwards TodoService events to the bus once the transaction has committed, rolled back changes are never pushed
+@Component
+public class TodoEventRelay {
+
+    private final TodoEventBus eventBus;
+
+    public TodoEventRelay(TodoEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    // every TodoService write publishes inside its transaction; fallbackExecution only delivers an event published
+    // outside one right away, whatever it reports has committed already
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        eventBus.publish(event);
+    }
+}
@@ -0,0 +1,173 @@
+package com.first.todo.event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-Sent Events streams of todo changes, one per connected client. The emitter runs on servlet
+ * async support, so an idle stream holds a socket but no request thread.
+ * <p>
+ * Events and heartbeats are queued per stream and written by a small dedicated sender pool, one sender
+ * per stream at a time, so a slow client only holds up its own stream. A stream with more than
+ * max-pending queued events, or whose sender has been stuck for a heartbeat interval, is closed; the
+ * client reconnects and catches up through delta sync.
+ */
+@Component
+public class TodoEventStreams {
+
+    private final TodoEventBus eventBus;
+    private final long timeoutMillis;
+    private final long stalledNanos;
+    private final int maxPending;
+    private final ExecutorService senders;
+    private final Counter fellBehind;
+    private final Map<SseEmitter, Stream> streams = new ConcurrentHashMap<>();
+
+    public TodoEventStreams(TodoEventBus eventBus, MeterRegistry registry,
+                            @Value("${todo.events.stream-timeout:30m}") Duration timeout,
+                            @Value("${todo.events.heartbeat-interval:20s}") Duration heartbeatInterval,
+                            @Value("${todo.events.max-pending:100}") int maxPending,
+                            @Value("${todo.events.send-threads:4}") int sendThreads,
+                            @Value("${todo.events.send-queue-capacity:50000}") int sendQueueCapacity) {
+        this.eventBus = eventBus;
+        this.timeoutMillis = timeout.toMillis();
+        this.stalledNanos = heartbeatInterval.toNanos();
+        this.maxPending = maxPending;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "todo-event-sender-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.senders = ExecutorServiceMetrics.monitor(registry, pool, "todo.events.senders");
+        this.fellBehind = registry.counter("todo.events.streams.fell.behind");
+        registry.gaugeMapSize("todo.events.streams", Tags.empty(), streams);
+    }
+
+    public SseEmitter open(Long userId) {
+        // EventSource clients reconnect by themselves when the stream times out
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Stream stream = new Stream(emitter);
+        stream.subscription = eventBus.subscribe(userId, event -> enqueue(stream, SseEmitter.event()
+                .name(event.getType().name().toLowerCase(Locale.ROOT))
+                .data(event)));
+        streams.put(emitter, stream);
+        emitter.onCompletion(() -> close(emitter));
+        emitter.onTimeout(() -> close(emitter));
+        emitter.onError(error -> close(emitter));
+        return emitter;
+    }
+
+    // a comment line every interval keeps proxies from closing idle streams and finds dead clients;
+    // the scheduler thread only queues it, the senders write it
+    @Scheduled(fixedDelayString = "${todo.events.heartbeat-interval:20s}", initialDelayString = "${todo.events.heartbeat-interval:20s}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Stream stream : streams.values()) {
+            if (stream.sending.get() && now - stream.lastProgress > stalledNanos) {
+                fallBehind(stream);
+            } else {
+                enqueue(stream, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    public int size() {
+        return streams.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+
+    private void enqueue(Stream stream, SseEmitter.SseEventBuilder event) {
+        if (stream.queued.incrementAndGet() > maxPending) {
+            fallBehind(stream);
+            return;
+        }
+        stream.pending.add(event);
+        if (stream.sending.compareAndSet(false, true)) {
+            stream.lastProgress = System.nanoTime();
+            try {
+                senders.execute(() -> send(stream));
+            } catch (RejectedExecutionException e) {
+                stream.sending.set(false);
+                fallBehind(stream);
+            }
+        }
+    }
+
+    // writes what is queued, then hands the stream back; an event queued meanwhile starts a new round
+    private void send(Stream stream) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = stream.pending.poll()) != null) {
+                stream.queued.decrementAndGet();
+                try {
+                    stream.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close(stream.emitter);
+                    return;
+                }
+                stream.lastProgress = System.nanoTime();
+            }
+            stream.sending.set(false);
+        } while (!stream.pending.isEmpty() && stream.sending.compareAndSet(false, true));
+    }
+
+    private void fallBehind(Stream stream) {
+        if (streams.containsKey(stream.emitter)) {
+            fellBehind.increment();
+            close(stream.emitter);
+        }
+    }
+
+    private void close(SseEmitter emitter) {
+        Stream stream = streams.remove(emitter);
+        if (stream != null) {
+            stream.subscription.cancel();
+            stream.pending.clear();
+            emitter.complete();
+        }
+    }
+
+    private static final class Stream {
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long lastProgress;
+        private TodoEventBus.Subscription subscription;
+
+        private Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.first.todo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// completed todos moved out of the hot todo table by TodoArchiver, read-only and keeping their todo id
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "todo_archive", indexes = {
+        // per-user listings and pages in id order
+        @Index(name = "idx_todo_archive_user", columnList = "user_id, id")
+})
+public class ArchivedTodo {
+
+    @Id
+    private Long id;
+
+    @Column(name = "title")
+    private String title;
+
+    // as long as todo.description, so every archived copy fits
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "status")
+    private TodoStatus status;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
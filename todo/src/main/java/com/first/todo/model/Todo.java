@@ -1,24 +1,37 @@
 package com.first.todo.model;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;  
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
@@ -30,11 +43,30 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "todo")
+@Table(name = "todo", indexes = {
+        // serves findByUserId and per-user status filters; with deleted for the @SQLRestriction below and the id InnoDB
+        // appends, id/status/updated_at reads are index-only
+        @Index(name = "idx_todo_user_deleted_status_updated", columnList = "user_id, deleted, status, updated_at"),
+        // delta sync walks a user's changes in (updated_at, id) order
+        @Index(name = "idx_todo_user_updated", columnList = "user_id, updated_at, id"),
+        // TodoArchiver picks long-completed todos in updated_at order without scanning the table
+        @Index(name = "idx_todo_status_updated", columnList = "status, updated_at"),
+        // TombstonePurgeJob picks expired tombstones in deleted_at order without scanning the table
+        @Index(name = "idx_todo_deleted_at", columnList = "deleted, deleted_at")
+})
+// deleted todos stay as tombstones until purged so sync clients can see the deletion; every JPQL query skips them
+@SQLRestriction("deleted = false")
+// updates only set the changed columns, so a patch of one field is a one-column UPDATE (plus updated_at and version)
+@DynamicUpdate
 public class Todo {
+
+    // ids taken from todo_seq per read, TodoIdSequenceSeeder keeps the sequence this far above existing ids
+    public static final int ID_ALLOCATION_SIZE = 50;
     
+    // pooled sequence (a table on MySQL) so Hibernate can batch inserts, IDENTITY would force one insert per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+    @SequenceGenerator(name = "todo_seq", sequenceName = "todo_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "title")
@@ -43,7 +75,8 @@ public class Todo {
     @Size(min = 2, message = "Title should have at least 2 characters")
     private String title;
 
-    @Column(name = "description")
+    // as long as the @Size allows, the default varchar(255) would refuse longer descriptions the validation let through
+    @Column(name = "description", length = 500)
     @Size(max = 500, message = "Description should not exceed 500 characters")
     private String description;
 
@@ -54,12 +87,34 @@ public class Todo {
     @Column(name = "user_id")
     private Long userId;
 
+    // read-only view of user_id for fetch plans (joins, entity graphs); todos are still written through userId
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
+    @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Column(name = "deleted", nullable = false)
+    @ColumnDefault("false")
+    private boolean deleted;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // optimistic lock: every UPDATE checks and bumps it, bulk updates in TodoRepo bump it by hand
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     // Constructors, getters, and setters can be generated by Lombok
 }
@@ -0,0 +1,8 @@
+package com.first.todo.model;
+
+public enum TodoImportStatus {
+    CREATED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
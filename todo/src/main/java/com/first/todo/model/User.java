@@ -7,7 +7,10 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;   
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
@@ -16,6 +19,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Email;
 
@@ -24,6 +28,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.hibernate.annotations.CreationTimestamp;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.first.todo.model.Role;
@@ -34,14 +40,21 @@ import com.first.todo.model.Role;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "user")
+@Table(name = "user", uniqueConstraints = {
+        // registerUser relies on these instead of checking for existing rows first
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "userName"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
 public class User {
 
+    public static final String USERNAME_CONSTRAINT = "uk_user_username";
+    public static final String EMAIL_CONSTRAINT = "uk_user_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "userName", unique = true)
+    @Column(name = "userName")
     @NotNull
     @NotBlank(message = "Name is mandatory")
     @Size(min = 2, message = "Name should have at least 2 characters")
@@ -60,7 +73,13 @@ public class User {
     @Pattern(regexp = "^(?=.*[0-9])(?=.*[a-zA-Z]).{6,}$", message = "Password must contain at least one letter and one number")
     private String password;
 
-    @OneToMany(mappedBy = "user",cascade = jakarta.persistence.CascadeType.ALL, orphanRemoval = true)
+    // inverse side of Todo.user, only loaded through explicit fetch plans (UserRepo.findWithTodosById);
+    // todos are written through Todo.userId and removed by UserService.deleteUser
+    @OneToMany(mappedBy = "user")
+    @OrderBy("id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Todo> todos= new ArrayList<>();
 
     @Enumerated(value = jakarta.persistence.EnumType.STRING)
@@ -0,0 +1,35 @@
+package com.first.todo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// per-user todo counters kept in step with every todo write when todo.stats.counters.enabled is set (see TodoStatsCounters)
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "todo_user_stats")
+public class UserTodoStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // todos without a status count here only
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Column(name = "pending", nullable = false)
+    private long pending;
+
+    @Column(name = "in_progress", nullable = false)
+    private long inProgress;
+
+    @Column(name = "completed", nullable = false)
+    private long completed;
+}
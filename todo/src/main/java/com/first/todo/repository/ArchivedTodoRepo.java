@@ -0,0 +1,60 @@
+package com.first.todo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoStatusCountDto;
+import com.first.todo.model.ArchivedTodo;
+import com.first.todo.model.TodoStatus;
+
+@Repository
+public interface ArchivedTodoRepo extends JpaRepository<ArchivedTodo, Long> {
+
+    // the same response as TodoRepo.RESPONSE_DTO, archived todos look like any other todo to clients
+    String RESPONSE_DTO = "new com.first.todo.dto.TodoResponseDto(a.id, a.title, a.description, a.status, a.userId, a.createdAt, a.updatedAt, a.version)";
+
+    // copies todo rows as they are; TodoArchiver deletes them from todo in the same transaction
+    @Modifying
+    @Query(value = "insert into todo_archive (id, title, description, status, user_id, created_at, updated_at, version, archived_at)"
+            + " select id, title, description, status, user_id, created_at, updated_at, version, :now from todo where id in :ids",
+            nativeQuery = true)
+    int copyFromTodo(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "delete from todo_archive where user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // the read-only transactions below run on the replica when one is configured (see DataSourceRoutingConfig)
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from ArchivedTodo a where a.id = :id")
+    Optional<TodoResponseDto> findResponseById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from ArchivedTodo a where a.userId = :userId order by a.id")
+    List<TodoResponseDto> findResponsesByUserId(@Param("userId") Long userId);
+
+    // one row per status (all COMPLETED unless the archiving rule changes), added to the stats on request
+    @Transactional(readOnly = true)
+    @Query("select new com.first.todo.dto.TodoStatusCountDto(a.status, count(a)) from ArchivedTodo a where a.userId = :userId group by a.status")
+    List<TodoStatusCountDto> countByStatus(@Param("userId") Long userId);
+
+    // keyset page with the same filters as TodoRepo.findPageAfter
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from ArchivedTodo a where a.id > :afterId"
+            + " and (:status is null or a.status = :status)"
+            + " and (:userId is null or a.userId = :userId)"
+            + " order by a.id")
+    List<TodoResponseDto> findPageAfter(@Param("afterId") Long afterId, @Param("status") TodoStatus status,
+            @Param("userId") Long userId, Limit limit);
+}
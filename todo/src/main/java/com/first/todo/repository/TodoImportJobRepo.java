@@ -0,0 +1,9 @@
+package com.first.todo.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.first.todo.model.TodoImportJob;
+
+@Repository
+public interface TodoImportJobRepo extends JpaRepository<TodoImportJob, Long> {
+}
@@ -1,13 +1,158 @@
 package com.first.todo.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;   
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.first.todo.dto.TodoChangeView;
+import com.first.todo.dto.TodoListVersionDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoStatusCountDto;
+import com.first.todo.dto.TodoStatusView;
 import com.first.todo.model.Todo;
+import com.first.todo.model.TodoStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TodoRepo extends JpaRepository<Todo, Long> {
     
+    // queries below select straight into TodoResponseDto: no managed entities, no dirty checking at flush
+    String RESPONSE_DTO = "new com.first.todo.dto.TodoResponseDto(t.id, t.title, t.description, t.status, t.userId, t.createdAt, t.updatedAt, t.version)";
+
     List<Todo> findByUserId(Long userId);
 
-} // Ensure this closing brace is present
\ No newline at end of file
+    @Query("select t.userId from Todo t where t.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    @Query("select t.id from Todo t where t.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // variant locking the rows until the transaction ends, used by batches when stats counters are maintained (TodoStatsCounters)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Todo t where t.id in :ids")
+    List<Todo> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select id, user_id as userId, status from todo where id in :ids and deleted = false for update", nativeQuery = true)
+    List<TodoStatusView> findStatusesForUpdate(@Param("ids") Collection<Long> ids);
+
+    // single UPDATE turning the row into a tombstone, returns 0 when the id does not exist or is already deleted
+    @Modifying
+    @Query("update Todo t set t.deleted = true, t.deletedAt = :now, t.updatedAt = :now, t.version = t.version + 1"
+            + " where t.id = :id and t.deleted = false")
+    int softDeleteTodoById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // status-only update without loading the rows, used for single updates and write-behind flushes
+    @Modifying
+    @Query("update Todo t set t.status = :status, t.updatedAt = :now, t.version = t.version + 1"
+            + " where t.id in :ids and t.deleted = false")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") TodoStatus status, @Param("now") LocalDateTime now);
+
+    // conditional variant: 0 rows when the todo is missing or no longer at the expected version
+    @Modifying
+    @Query("update Todo t set t.status = :status, t.updatedAt = :now, t.version = t.version + 1"
+            + " where t.id = :id and t.version = :version and t.deleted = false")
+    int updateStatusIfVersion(@Param("id") Long id, @Param("status") TodoStatus status, @Param("version") Long version,
+            @Param("now") LocalDateTime now);
+
+    // native so tombstones of the user go too, the user is gone and nobody syncs them anymore
+    @Modifying
+    @Query(value = "delete from todo where user_id = :userId", nativeQuery = true)
+    int deleteTodosByUserId(@Param("userId") Long userId);
+
+    // oldest tombstones deleted before the cutoff, locked until TombstonePurgeJob deletes them; walks idx_todo_deleted_at
+    @Query(value = "select id from todo where deleted = true and deleted_at < :cutoff"
+            + " order by deleted_at limit :limit for update", nativeQuery = true)
+    List<Long> findExpiredTombstonesForUpdate(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from todo where id in :ids and deleted = true", nativeQuery = true)
+    int deleteTombstones(@Param("ids") Collection<Long> ids);
+
+    // oldest todos completed and unchanged since before the cutoff (updated_at stands in for the completion time), locked so they cannot change between their copy to todo_archive and their delete
+    @Query(value = "select id, user_id as userId, status from todo"
+            + " where status = 'COMPLETED' and deleted = false and updated_at < :cutoff"
+            + " order by updated_at, id limit :limit for update", nativeQuery = true)
+    List<TodoStatusView> findArchivableForUpdate(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // archived rows stay behind as tombstones until purged, so sync clients learn about the archival
+    // (findChangesAfter tells them from deletions by their todo_archive copy); the copy has the text, the
+    // tombstone keeps only what sync reads so the hot table does not carry it until the purge
+    @Modifying
+    @Query(value = "update todo set deleted = true, deleted_at = :now, updated_at = :now, version = version + 1,"
+            + " title = '', description = null where id in :ids", nativeQuery = true)
+    int tombstoneArchived(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // every row, tombstones included: the size of the table rather than the number of live todos
+    @Query(value = "select count(*) from todo", nativeQuery = true)
+    long countRows();
+
+    // changes of a user strictly after (updatedAt, id), tombstones included; walks idx_todo_user_updated,
+    // archivedId is set on the tombstones of archived todos (one primary key lookup per tombstone)
+    @Query(value = "select t.id, t.title, t.description, t.status, t.user_id as userId, t.created_at as createdAt,"
+            + " t.updated_at as updatedAt, t.deleted, a.id as archivedId, t.version from todo t"
+            + " left join todo_archive a on a.id = t.id and t.deleted = true"
+            + " where t.user_id = :userId and t.updated_at >= :updatedAt and (t.updated_at > :updatedAt or t.id > :id)"
+            + " and t.updated_at <= :settledBefore"
+            + " order by t.updated_at, t.id limit :limit", nativeQuery = true)
+    List<TodoChangeView> findChangesAfter(@Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt,
+            @Param("id") Long id, @Param("settledBefore") LocalDateTime settledBefore, @Param("limit") int limit);
+
+    // the read-only transactions below run on the replica when one is configured (see DataSourceRoutingConfig)
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from Todo t where t.id = :id")
+    Optional<TodoResponseDto> findResponseById(@Param("id") Long id);
+
+    // on the replica when called outside a transaction (search hydration); the write-behind flush calls it inside
+    // its read-write transaction and stays on the primary
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from Todo t where t.id in :ids")
+    List<TodoResponseDto> findResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from Todo t where t.userId = :userId order by t.id")
+    List<TodoResponseDto> findResponsesByUserId(@Param("userId") Long userId);
+
+    // answered from idx_todo_user_deleted_status_updated alone, no row is read
+    @Transactional(readOnly = true)
+    @Query("select new com.first.todo.dto.TodoListVersionDto(count(t), max(t.updatedAt)) from Todo t where t.userId = :userId")
+    TodoListVersionDto findListVersionByUserId(@Param("userId") Long userId);
+
+    // one row per status, answered from idx_todo_user_deleted_status_updated alone
+    @Transactional(readOnly = true)
+    @Query("select new com.first.todo.dto.TodoStatusCountDto(t.status, count(t)) from Todo t where t.userId = :userId group by t.status")
+    List<TodoStatusCountDto> countByStatus(@Param("userId") Long userId);
+
+    // keyset page: rows strictly after the given id, filters are optional (null = any)
+    @Transactional(readOnly = true)
+    @Query("select " + RESPONSE_DTO + " from Todo t where t.id > :afterId"
+            + " and (:status is null or t.status = :status)"
+            + " and (:userId is null or t.userId = :userId)"
+            + " order by t.id")
+    List<TodoResponseDto> findPageAfter(@Param("afterId") Long afterId, @Param("status") TodoStatus status,
+            @Param("userId") Long userId, Limit limit);
+
+    // forward-only cursor for exports, must be consumed inside a transaction and closed
+    @Query("select " + RESPONSE_DTO + " from Todo t where (:status is null or t.status = :status)"
+            + " and (:userId is null or t.userId = :userId)"
+            + " order by t.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000")
+    })
+    Stream<TodoResponseDto> streamAll(@Param("status") TodoStatus status, @Param("userId") Long userId);
+
+}
@@ -0,0 +1,50 @@
+package com.first.todo.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.first.todo.model.UserTodoStats;
+
+import java.util.Optional;
+
+@Repository
+public interface TodoStatsRepo extends JpaRepository<UserTodoStats, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select s from UserTodoStats s where s.userId = :userId")
+    Optional<UserTodoStats> findByUserId(@Param("userId") Long userId);
+
+    // one statement whether or not the user has a row yet; the row lock serializes concurrent writers of a user
+    @Modifying
+    @Query(value = "insert into todo_user_stats (user_id, total, pending, in_progress, completed)"
+            + " values (:userId, :total, :pending, :inProgress, :completed)"
+            + " on duplicate key update total = total + :total, pending = pending + :pending,"
+            + " in_progress = in_progress + :inProgress, completed = completed + :completed", nativeQuery = true)
+    int addCounts(@Param("userId") Long userId, @Param("total") long total, @Param("pending") long pending,
+            @Param("inProgress") long inProgress, @Param("completed") long completed);
+
+    @Modifying
+    @Query("delete from UserTodoStats s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // users whose todos are all gone (deleted or archived) since the last recount
+    @Modifying
+    @Query(value = "delete from todo_user_stats where not exists"
+            + " (select 1 from todo t where t.user_id = todo_user_stats.user_id and t.deleted = false)", nativeQuery = true)
+    int deleteCountsWithoutTodos();
+
+    // recount from the todo table, tombstones excluded; an upsert, so instances recounting at once do not collide
+    @Modifying
+    @Query(value = "insert into todo_user_stats (user_id, total, pending, in_progress, completed)"
+            + " select user_id, count(*),"
+            + " sum(case when status = 'PENDING' then 1 else 0 end),"
+            + " sum(case when status = 'IN_PROGRESS' then 1 else 0 end),"
+            + " sum(case when status = 'COMPLETED' then 1 else 0 end)"
+            + " from todo where deleted = false and user_id is not null group by user_id"
+            + " on duplicate key update total = values(total), pending = values(pending),"
+            + " in_progress = values(in_progress), completed = values(completed)", nativeQuery = true)
+    int upsertCountsFromTodos();
+}
@@ -1,14 +1,69 @@
 package com.first.todo.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.first.todo.dto.UserSummaryDto;
 import com.first.todo.model.User;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UserRepo extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+    // the property is userName, so these cannot be derived from the method name
+    // read-only lookups run on the replica when one is configured (see DataSourceRoutingConfig)
+    @Transactional(readOnly = true)
+    @Query("select u from User u where u.userName = :username")
+    Optional<User> findByUsername(@Param("username") String username);
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
-    boolean existsByUsername(String username);
+    @Transactional(readOnly = true)
+    @Query("select count(u) > 0 from User u where u.userName = :username")
+    boolean existsByUsername(@Param("username") String username);
+    @Transactional(readOnly = true)
     boolean existsByEmail(String email);  
+
+    // rehash on login (TodoUserDetailsService.updatePassword) runs outside any service transaction
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.userName = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    // the user and all of their todos in one query (left join), tombstones excluded by Todo's restriction
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "todos")
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findWithTodosById(@Param("id") Long id);
+
+    // keyset page of users with their todo counts, one aggregate query whatever the page size
+    @Transactional(readOnly = true)
+    @Query("select new com.first.todo.dto.UserSummaryDto(u.id, u.userName, u.email, u.role, count(t))"
+            + " from User u left join u.todos t where u.id > :afterId"
+            + " group by u.id, u.userName, u.email, u.role order by u.id")
+    List<UserSummaryDto> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // every name and email, for UserNameFilter; must be consumed inside a transaction and closed
+    @Query("select u.userName from User u")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamUserNames();
+
+    @Query("select u.email from User u")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamEmails();
+
+    // single DELETE statement, returns the number of deleted rows (0 when the id does not exist)
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
 }
@@ -0,0 +1,285 @@
+package com.first.todo.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.repository.TodoRepo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Embedded Lucene index over todo titles and descriptions. One index holds every user, each query is
+ * filtered on the userId term, so a user only ever scores against their own todos.
+ * <p>
+ * All writes (single changes and rebuilds) run one at a time on the indexer thread, so callers never
+ * wait for Lucene and a rebuild cannot interleave with a change. Searches read a near-real-time
+ * snapshot that is refreshed after every write. Like the in-process event bus, only changes made
+ * through this instance reach the index; with several instances schedule a rebuild (todo.search.rebuild-cron).
+ */
+@Component
+public class TodoSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoSearchIndex.class);
+
+    static final String ID = "id";
+    static final String USER_ID = "userId";
+    static final String TITLE = "title";
+    static final String DESCRIPTION = "description";
+    // more words than this in a query are ignored
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private final TodoRepo todoRepo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ExecutorService indexer;
+    private final Timer searchTimer;
+
+    public TodoSearchIndex(TodoRepo todoRepo, PlatformTransactionManager transactionManager, MeterRegistry registry,
+                           @Value("${todo.search.index-dir:}") String indexDir) throws IOException {
+        this.todoRepo = todoRepo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // in memory by default: rebuilt from the database at every start
+        this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+        this.indexer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.searchTimer = Timer.builder("todo.search.query").publishPercentileHistogram().register(registry);
+        registry.gauge("todo.search.documents", writer, indexWriter -> indexWriter.getDocStats().numDocs);
+    }
+
+    // an empty index (always the case in memory) is filled from the database once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (writer.getDocStats().numDocs == 0) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${todo.search.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Replaces the whole index with the todos in the database. Searches keep using the previous snapshot
+     * until the rebuild is done; changes that arrive meanwhile are applied after it.
+     */
+    public CompletableFuture<Integer> rebuild() {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            Integer indexed = readOnlyTransaction.execute(status -> {
+                try (Stream<TodoResponseDto> todos = todoRepo.streamAll(null, null)) {
+                    writer.deleteAll();
+                    int count = 0;
+                    Iterator<TodoResponseDto> iterator = todos.iterator();
+                    while (iterator.hasNext()) {
+                        writer.addDocument(document(iterator.next()));
+                        count++;
+                    }
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            commitAndRefresh();
+            log.info("Search index rebuilt with {} todos in {} ms", indexed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return indexed;
+        }, indexer);
+    }
+
+    public CompletableFuture<Void> index(TodoResponseDto todo) {
+        return write(() -> writer.updateDocument(new Term(ID, todo.getId().toString()), document(todo)));
+    }
+
+    // todos that were never indexed (new ids, e.g. an import chunk), added without a delete per id and refreshed once
+    public CompletableFuture<Void> addAll(List<TodoResponseDto> todos) {
+        return write(() -> writer.addDocuments(todos.stream().map(TodoSearchIndex::document).toList()));
+    }
+
+    public CompletableFuture<Void> remove(Long todoId) {
+        return write(() -> writer.deleteDocuments(new Term(ID, todoId.toString())));
+    }
+
+    // several todos in one delete and one refresh, e.g. an archived chunk
+    public CompletableFuture<Void> removeAll(Collection<Long> todoIds) {
+        return write(() -> writer.deleteDocuments(todoIds.stream().map(id -> new Term(ID, id.toString())).toArray(Term[]::new)));
+    }
+
+    /**
+     * Ids of the user's todos matching every word of the text, best match first. Each word also matches
+     * as a prefix ("gro" finds "groceries"); whole-word and title matches rank higher.
+     */
+    public List<Long> search(Long userId, String text, int limit) {
+        Query query = query(userId, text);
+        if (query == null) {
+            return List.of();
+        }
+        return searchTimer.record(() -> {
+            try {
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    StoredFields storedFields = searcher.storedFields();
+                    List<Long> ids = new ArrayList<>();
+                    for (ScoreDoc hit : searcher.search(query, limit).scoreDocs) {
+                        ids.add(Long.valueOf(storedFields.document(hit.doc, Set.of(ID)).get(ID)));
+                    }
+                    return ids;
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // no-op for the in-memory index; an on-disk index only survives a crash up to its last commit
+    @Scheduled(fixedDelayString = "${todo.search.commit-interval:30s}")
+    public void commit() {
+        if (writer.hasUncommittedChanges()) {
+            indexer.execute(this::commitAndRefresh);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        indexer.shutdown();
+        indexer.awaitTermination(10, TimeUnit.SECONDS);
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    Query query(Long userId, String text) {
+        List<String> terms = analyze(text);
+        if (userId == null || terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(USER_ID, userId.toString())), BooleanClause.Occur.FILTER);
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, term)), 3f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(DESCRIPTION, term)), 1.5f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(TITLE, term)), 2f), BooleanClause.Occur.SHOULD)
+                    .add(new PrefixQuery(new Term(DESCRIPTION, term)), BooleanClause.Occur.SHOULD);
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream tokens = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private CompletableFuture<Void> write(IndexWrite write) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write.run();
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, indexer).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Search index update failed, it is fixed by the next change of the todo or a rebuild", error);
+            }
+        });
+    }
+
+    private void commitAndRefresh() {
+        try {
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document document(TodoResponseDto todo) {
+        Document document = new Document();
+        document.add(new StringField(ID, todo.getId().toString(), Field.Store.YES));
+        document.add(new StringField(USER_ID, String.valueOf(todo.getUserId()), Field.Store.NO));
+        if (todo.getTitle() != null) {
+            document.add(new TextField(TITLE, todo.getTitle(), Field.Store.NO));
+        }
+        if (todo.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, todo.getDescription(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    private interface IndexWrite {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,29 @@
+package com.first.todo.search;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.first.todo.event.TodoChangeType;
+import com.first.todo.event.TodoChangedEvent;
+
+// keeps the search index in step with TodoService writes, once they have committed
+@Component
+public class TodoSearchIndexer {
+
+    private final TodoSearchIndex searchIndex;
+
+    public TodoSearchIndexer(TodoSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    // only queues the change, the index is written on its own thread
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.getType() == TodoChangeType.DELETED || event.getTodo() == null) {
+            searchIndex.remove(event.getTodoId());
+        } else {
+            searchIndex.index(event.getTodo());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.first.todo.service;
+
+import java.time.LocalDateTime;
+
+import com.first.todo.dto.UserResponseDto;
+import com.first.todo.model.Role;
+import com.first.todo.model.User;
+
+// immutable copy of a user row kept by UserCache; the entity itself is mutable and has a lazy todo collection
+public record CachedUser(Long id, String userName, String email, String password, Role role,
+                         LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getUserName(), user.getEmail(), user.getPassword(), user.getRole(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    UserResponseDto toResponseDto() {
+        return new UserResponseDto(id, userName, email, role, createdAt, updatedAt);
+    }
+}
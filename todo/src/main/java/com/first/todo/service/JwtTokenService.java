@@ -0,0 +1,135 @@
+package com.first.todo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.first.todo.config.JwtConfig;
+import com.first.todo.config.ReadYourWrites;
+import com.first.todo.dto.TokenResponseDto;
+import com.first.todo.model.User;
+import com.first.todo.repository.UserRepo;
+
+/**
+ * Issues short-lived access tokens and longer-lived refresh tokens. The password is checked once per login
+ * (on the hashing pool); a refresh only reads the user to make sure the account still exists and has not
+ * changed since the refresh token was issued, which is how a password change revokes old refresh tokens.
+ */
+@Service
+@ConditionalOnProperty(name = "todo.security.mode", havingValue = "jwt", matchIfMissing = true)
+public class JwtTokenService {
+
+    private static final String ISSUER = "todo";
+
+    private final JwtEncoder jwtEncoder;
+    private final JwtDecoder refreshTokenDecoder;
+    private final AuthenticationManager authenticationManager;
+    private final PasswordHasher passwordHasher;
+    private final UserRepo userRepo;
+    private final ReadYourWrites readYourWrites;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public JwtTokenService(JwtEncoder jwtEncoder, SecretKey jwtSigningKey, AuthenticationManager authenticationManager,
+                           PasswordHasher passwordHasher, UserRepo userRepo, ReadYourWrites readYourWrites,
+                           @Value("${todo.security.jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+                           @Value("${todo.security.jwt.refresh-token-ttl:7d}") Duration refreshTokenTtl) {
+        this.jwtEncoder = jwtEncoder;
+        this.refreshTokenDecoder = JwtConfig.decoder(jwtSigningKey, JwtConfig.REFRESH_TOKEN);
+        this.authenticationManager = authenticationManager;
+        this.passwordHasher = passwordHasher;
+        this.userRepo = userRepo;
+        this.readYourWrites = readYourWrites;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    public CompletableFuture<TokenResponseDto> login(String username, String password) {
+        return passwordHasher.submit(() -> {
+            try {
+                UserDetails user = (UserDetails) authenticationManager
+                        .authenticate(UsernamePasswordAuthenticationToken.unauthenticated(username, password))
+                        .getPrincipal();
+                List<String> roles = user.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .map(authority -> authority.substring("ROLE_".length()))
+                        .toList();
+                return issue(user.getUsername(), roles);
+            } catch (AuthenticationException e) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Bad credentials");
+            }
+        });
+    }
+
+    public TokenResponseDto refresh(String refreshToken) {
+        Jwt jwt;
+        try {
+            jwt = refreshTokenDecoder.decode(refreshToken);
+        } catch (JwtException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        String username = jwt.getSubject();
+        User user = readYourWrites.readUserByName(username, () -> userRepo.findByUsername(username))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+        // iat has second precision; rows older than the timestamps (or baselined without them) have no updatedAt
+        LocalDateTime lastChange = user.getUpdatedAt() != null ? user.getUpdatedAt() : user.getCreatedAt();
+        Instant changedAt = lastChange == null ? Instant.EPOCH
+                : lastChange.atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS);
+        if (jwt.getIssuedAt() == null || changedAt.isAfter(jwt.getIssuedAt())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token revoked by an account change");
+        }
+        return issue(username, List.of(user.getRole().name()));
+    }
+
+    private TokenResponseDto issue(String username, List<String> roles) {
+        Instant now = Instant.now();
+        JwtClaimsSet access = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(username)
+                .issuedAt(now)
+                .expiresAt(now.plus(accessTokenTtl))
+                .claim(JwtConfig.TOKEN_USE_CLAIM, JwtConfig.ACCESS_TOKEN)
+                .claim(JwtConfig.ROLES_CLAIM, roles)
+                .build();
+        JwtClaimsSet refresh = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(username)
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plus(refreshTokenTtl))
+                .claim(JwtConfig.TOKEN_USE_CLAIM, JwtConfig.REFRESH_TOKEN)
+                .build();
+        return new TokenResponseDto(encode(access), encode(refresh), "Bearer", accessTokenTtl.toSeconds());
+    }
+
+    private String encode(JwtClaimsSet claims) {
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+}
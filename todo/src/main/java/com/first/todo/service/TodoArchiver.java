@@ -0,0 +1,205 @@
+package com.first.todo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.first.todo.config.ReadYourWrites;
+import com.first.todo.dto.TodoStatusView;
+import com.first.todo.repository.ArchivedTodoRepo;
+import com.first.todo.repository.TodoRepo;
+import com.first.todo.search.TodoSearchIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Moves todos completed for longer than completed-for from the todo table to todo_archive, so the indexes
+ * every todo read walks only hold live work. Runs off-peak by default, in chunks of chunk-size rows: each
+ * chunk locks its rows, copies them and turns them into tombstones in one short transaction, then the job pauses before
+ * the next one so user writes waiting on those locks get through. The scheduler thread only starts a run,
+ * the chunks and pauses run on the archiver's own thread so the other scheduled jobs keep their schedule.
+ * <p>
+ * There is no completion time: "completed for" is measured from updated_at of a todo whose status is COMPLETED,
+ * which is the completion itself unless the todo was changed afterwards. Any later change (an edit of the title,
+ * a status write repeating COMPLETED) restarts the wait, so a todo edited after completion stays in the hot table
+ * until completed-for has passed since that edit.
+ * <p>
+ * Archived todos keep their id and are read-only. They leave the default reads (lists, pages, stats, search)
+ * and come back on reads asked with includeArchived. Their tombstones in todo put them in the sync feed as
+ * archived: hidden like those of deleted todos, stripped of title and description, and purged with them in
+ * chunks by TombstonePurgeJob once the tombstone retention has passed. Until then their index entries stay in
+ * the hot table. No change event is sent: clients polling a list see its ETag change.
+ */
+@Component
+public class TodoArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiver.class);
+
+    private final TodoRepo todoRepo;
+    private final ArchivedTodoRepo archivedTodoRepo;
+    private final TodoCache todoCache;
+    private final ReadYourWrites readYourWrites;
+    private final TodoSearchIndex searchIndex;
+    private final TodoStatsCounters statsCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration completedFor;
+    private final int chunkSize;
+    private final Duration pause;
+
+    private final ExecutorService runner;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter archived;
+    // counted at the end of every run, a count per scrape would scan the table every time
+    private final AtomicLong hotRows = new AtomicLong();
+    private final AtomicLong archivedRows = new AtomicLong();
+
+    public TodoArchiver(TodoRepo todoRepo, ArchivedTodoRepo archivedTodoRepo, TodoCache todoCache, ReadYourWrites readYourWrites,
+                        TodoSearchIndex searchIndex, TodoStatsCounters statsCounters, TransactionTemplate transactionTemplate,
+                        MeterRegistry registry,
+                        @Value("${todo.archive.completed-for:90d}") Duration completedFor,
+                        @Value("${todo.archive.chunk-size:500}") int chunkSize,
+                        @Value("${todo.archive.pause:100ms}") Duration pause) {
+        this.todoRepo = todoRepo;
+        this.archivedTodoRepo = archivedTodoRepo;
+        this.todoCache = todoCache;
+        this.readYourWrites = readYourWrites;
+        this.searchIndex = searchIndex;
+        this.statsCounters = statsCounters;
+        this.transactionTemplate = transactionTemplate;
+        this.completedFor = completedFor;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        // one run at a time, nothing queued behind it: the running flag already turns a second run away
+        this.runner = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "todo-archiver");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.archived = registry.counter("todo.archive.rows");
+        registry.gauge("todo.archive.table.rows", Tags.of("table", "todo"), hotRows);
+        registry.gauge("todo.archive.table.rows", Tags.of("table", "todo_archive"), archivedRows);
+    }
+
+    @Scheduled(cron = "${todo.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        if (running.get()) {
+            log.info("Todo archival skipped, the previous run is still going");
+            return;
+        }
+        try {
+            runner.execute(() -> {
+                try {
+                    archive();
+                } catch (ResponseStatusException e) {
+                    log.info("Todo archival skipped, the previous run is still going");
+                } catch (RuntimeException e) {
+                    log.error("Todo archival failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.info("Todo archival skipped, the previous run is still going");
+        }
+    }
+
+    // archives everything due now and returns the number of todos moved; one run at a time per instance
+    public int archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Todo archival is already running");
+        }
+        try {
+            return archiveCompletedBefore(LocalDateTime.now().minus(completedFor));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // interrupts a run in progress, it stops after its current chunk
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private int archiveCompletedBefore(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveChunk(cutoff);
+            total += moved;
+            if (moved == chunkSize) {
+                pause();
+            }
+        } while (moved == chunkSize && !Thread.currentThread().isInterrupted());
+
+        hotRows.set(todoRepo.countRows());
+        archivedRows.set(archivedTodoRepo.count());
+        if (total > 0) {
+            log.info("Archived {} todos completed before {} in {} ms", total, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<TodoStatusView> chunk = transactionTemplate.execute(status -> {
+            List<TodoStatusView> todos = todoRepo.findArchivableForUpdate(cutoff, chunkSize);
+            if (todos.isEmpty()) {
+                return todos;
+            }
+            List<Long> ids = todos.stream().map(TodoStatusView::getId).toList();
+            archivedTodoRepo.copyFromTodo(ids, now);
+            todoRepo.tombstoneArchived(ids, now);
+            statsCounters.removed(todos);
+
+            Set<Long> userIds = new HashSet<>();
+            for (TodoStatusView todo : todos) {
+                todoCache.evictTodo(todo.getId());
+                userIds.add(todo.getUserId());
+            }
+            for (Long userId : userIds) {
+                todoCache.evictUserTodos(userId);
+                readYourWrites.recordUserWrite(userId);
+            }
+            return todos;
+        });
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        searchIndex.removeAll(chunk.stream().map(TodoStatusView::getId).toList());
+        archived.increment(chunk.size());
+        return chunk.size();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
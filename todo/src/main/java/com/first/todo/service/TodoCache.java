@@ -0,0 +1,116 @@
+package com.first.todo.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.stereotype.Component;
+
+import com.first.todo.config.CacheConfig;
+import com.first.todo.dto.CacheStatsDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Read-through cache for single todos and per-user todo lists.
+ * Loads for the same key are serialized with evictions of that key, so a read that
+ * started before a write can never put the old value back after the write evicted it.
+ */
+@Component
+public class TodoCache {
+
+    @Autowired
+    private final CacheManager cacheManager;
+
+    public TodoCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public TodoResponseDto getTodo(Long id, Supplier<TodoResponseDto> loader) {
+        return get(todos(), id, loader);
+    }
+
+    public List<TodoResponseDto> getUserTodos(Long userId, Supplier<List<TodoResponseDto>> loader) {
+        return get(userTodos(), userId, () -> List.copyOf(loader.get()));
+    }
+
+    public boolean isEnabled() {
+        return !(cacheManager instanceof NoOpCacheManager);
+    }
+
+    // owner of a cached todo, without going to the database
+    public Optional<Long> cachedOwnerOf(Long id) {
+        Cache.ValueWrapper cached = todos().get(id);
+        if (cached == null || !(cached.get() instanceof TodoResponseDto todo)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(todo.getUserId());
+    }
+
+    // cached list of a user, without loading it on a miss
+    @SuppressWarnings("unchecked")
+    public Optional<List<TodoResponseDto>> cachedUserTodos(Long userId) {
+        Cache.ValueWrapper cached = userTodos().get(userId);
+        return cached == null ? Optional.empty() : Optional.ofNullable((List<TodoResponseDto>) cached.get());
+    }
+
+    public void evictTodo(Long id) {
+        evict(todos(), id);
+    }
+
+    public void evictUserTodos(Long userId) {
+        if (userId != null) {
+            evict(userTodos(), userId);
+        }
+    }
+
+    public Map<String, CacheStatsDto> stats() {
+        Map<String, CacheStatsDto> stats = new LinkedHashMap<>();
+        stats.put(CacheConfig.TODO_CACHE, stats(todos()));
+        stats.put(CacheConfig.USER_TODOS_CACHE, stats(userTodos()));
+        return stats;
+    }
+
+    private Cache todos() {
+        return cacheManager.getCache(CacheConfig.TODO_CACHE);
+    }
+
+    private Cache userTodos() {
+        return cacheManager.getCache(CacheConfig.USER_TODOS_CACHE);
+    }
+
+    // evictIfPresent reaches the cache right away, evict is held back until the commit by the transaction-aware
+    // proxy (CacheConfig); both are needed, a read between the two could cache the old row again (and its old
+    // version, which every versioned update would then be refused with)
+    private static void evict(Cache cache, Object key) {
+        cache.evictIfPresent(key);
+        cache.evict(key);
+    }
+
+    private static <T> T get(Cache cache, Object key, Supplier<T> loader) {
+        try {
+            return cache.get(key, loader::get);
+        } catch (Cache.ValueRetrievalException e) {
+            // surface the loader's own exception (e.g. "Todo not found") instead of the cache wrapper
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static CacheStatsDto stats(Cache cache) {
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return new CacheStatsDto();
+        }
+        CacheStats stats = nativeCache.stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.hitRate(), nativeCache.estimatedSize());
+    }
+}
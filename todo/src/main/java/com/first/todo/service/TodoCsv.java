@@ -0,0 +1,63 @@
+package com.first.todo.service;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.first.todo.dto.TodoImportRowDto;
+import com.first.todo.dto.TodoResponseDto;
+
+/**
+ * CSV layout of todo exports and imports: a header line, then one todo per line. Imports find their columns
+ * by header name and skip the others, so an export can be imported again as it is.
+ */
+public final class TodoCsv {
+
+    public static final String MEDIA_TYPE_VALUE = "text/csv";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final CsvMapper MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            // TodoResponseDto also carries the (ignored) User properties, only the schema columns are written
+            .enable(JsonGenerator.Feature.IGNORE_UNKNOWN)
+            // quote only values that need it (separator, quote, line break), not every value with a space
+            .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private static final CsvSchema EXPORT_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("title")
+            .addColumn("description")
+            .addColumn("status")
+            .addColumn("userId")
+            .addColumn("createdAt")
+            .addColumn("updatedAt")
+            .addColumn("version")
+            .setUseHeader(true)
+            .build();
+
+    private TodoCsv() {
+    }
+
+    static ObjectWriter exportWriter() {
+        return MAPPER.writerFor(TodoResponseDto.class).with(EXPORT_SCHEMA);
+    }
+
+    static ObjectReader importReader() {
+        return MAPPER.readerFor(TodoImportRowDto.class).with(CsvSchema.emptySchema().withHeader());
+    }
+}
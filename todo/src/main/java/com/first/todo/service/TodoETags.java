@@ -0,0 +1,46 @@
+package com.first.todo.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import com.first.todo.dto.TodoListVersionDto;
+import com.first.todo.dto.TodoResponseDto;
+
+/**
+ * Weak ETags for todo responses. A list tag only depends on the row count and the latest updatedAt,
+ * so it can be computed from a cached list or from an index-only aggregate query with the same result.
+ * Weak because the same data goes out as JSON, Smile or CBOR, gzipped or not; Tomcat also refuses to
+ * compress a response with a strong ETag.
+ */
+public final class TodoETags {
+
+    private TodoETags() {
+    }
+
+    public static String of(TodoResponseDto todo) {
+        return "W/\"" + todo.getId() + "-" + micros(todo.getUpdatedAt()) + "\"";
+    }
+
+    public static String of(Long userId, List<TodoResponseDto> todos) {
+        LocalDateTime lastUpdatedAt = null;
+        for (TodoResponseDto todo : todos) {
+            if (todo.getUpdatedAt() != null && (lastUpdatedAt == null || todo.getUpdatedAt().isAfter(lastUpdatedAt))) {
+                lastUpdatedAt = todo.getUpdatedAt();
+            }
+        }
+        return of(userId, new TodoListVersionDto((long) todos.size(), lastUpdatedAt));
+    }
+
+    public static String of(Long userId, TodoListVersionDto version) {
+        return "W/\"u" + userId + "-" + version.getCount() + "-" + micros(version.getLastUpdatedAt()) + "\"";
+    }
+
+    // the database keeps microseconds, so finer precision would make cached and stored values disagree
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
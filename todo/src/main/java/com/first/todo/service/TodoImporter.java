@@ -0,0 +1,263 @@
+package com.first.todo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.first.todo.config.ReadYourWrites;
+import com.first.todo.dto.TodoImportJobDto;
+import com.first.todo.dto.TodoImportRowDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.Todo;
+import com.first.todo.model.TodoImportJob;
+import com.first.todo.model.TodoImportStatus;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoImportJobRepo;
+import com.first.todo.search.TodoSearchIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports todos from a CSV or NDJSON upload while it is being received. Rows are parsed one at a time,
+ * validated against the Todo constraints (invalid rows are counted and skipped) and written in chunks of
+ * batched inserts, each chunk in its own transaction together with the job's progress. Memory is bounded
+ * by the chunk size whatever the size of the upload.
+ * <p>
+ * The inserts are plain JDBC batches: going through the persistence context (persist, flush, dirty checks)
+ * halves the import rate. Ids still come from Todo's own generator, so imported rows and rows persisted
+ * by Hibernate draw from the same pooled sequence blocks.
+ * <p>
+ * An upload that fails (bad line, dropped connection, crash) leaves the job at its last committed chunk;
+ * sending the same data again with the job id skips the rows already committed. Imported todos reach other
+ * clients through syncTodos and the search index, no change event is sent per row.
+ */
+@Component
+public class TodoImporter {
+
+    // a longer title would only fail at insert time and take its whole chunk down with it
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final String INSERT = "insert into todo (id, title, description, status, user_id, created_at, updated_at, deleted, version)"
+            + " values (?, ?, ?, ?, ?, ?, ?, false, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoImportJobRepo jobRepo;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TodoCache todoCache;
+    private final ReadYourWrites readYourWrites;
+    private final TodoSearchIndex searchIndex;
+    private final TodoStatsCounters statsCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Counter imported;
+    private final Counter rejected;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TodoImporter(JdbcTemplate jdbcTemplate, TodoImportJobRepo jobRepo, ObjectMapper objectMapper, Validator validator,
+                        TodoCache todoCache, ReadYourWrites readYourWrites, TodoSearchIndex searchIndex,
+                        TodoStatsCounters statsCounters, TransactionTemplate transactionTemplate, MeterRegistry registry,
+                        @Value("${todo.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRepo = jobRepo;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.todoCache = todoCache;
+        this.readYourWrites = readYourWrites;
+        this.searchIndex = searchIndex;
+        this.statsCounters = statsCounters;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.imported = registry.counter("todo.import.rows", "result", "imported");
+        this.rejected = registry.counter("todo.import.rows", "result", "rejected");
+    }
+
+    public TodoImportJobDto createImportJob(Long userId) {
+        return toDto(newJob(userId));
+    }
+
+    public TodoImportJobDto getImportJob(Long jobId) {
+        return jobRepo.findById(jobId).map(TodoImporter::toDto).orElseThrow(() -> new RuntimeException("Import job not found"));
+    }
+
+    /**
+     * Reads the upload to the end and returns the job as committed. Without a job id a new job is started,
+     * with one the upload resumes that job; a later upload of a job takes over from an earlier one still
+     * running, which then stops with 409.
+     */
+    public TodoImportJobDto importTodos(Long jobId, Long userId, MediaType format, InputStream in) throws IOException {
+        TodoImportJob job = jobId == null ? newJob(userId)
+                : jobRepo.findById(jobId).orElseThrow(() -> new RuntimeException("Import job not found"));
+        if (job.getStatus() == TodoImportStatus.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import job " + job.getId() + " is already completed");
+        }
+        job.setStatus(TodoImportStatus.RUNNING);
+
+        long row = 0;
+        List<Todo> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<TodoImportRowDto> rows = reader(format).readValues(in)) {
+            // version checked like every chunk: another upload may have taken the job since it was read
+            job = jobRepo.save(job);
+            long committedRows = job.getRowsRead();
+            while (rows.hasNextValue()) {
+                TodoImportRowDto values = rows.nextValue();
+                if (++row <= committedRows) {
+                    continue; // committed by an earlier upload of this job
+                }
+                Todo todo = new Todo();
+                String error = fill(todo, values, job.getUserId());
+                if (error != null) {
+                    job.setRowsRejected(job.getRowsRejected() + 1);
+                    job.setLastError(truncate("row " + row + ": " + error));
+                    rejected.increment();
+                } else {
+                    chunk.add(todo);
+                }
+                if (chunk.size() == chunkSize) {
+                    job = writeChunk(job, chunk, row);
+                }
+            }
+            job.setStatus(TodoImportStatus.COMPLETED);
+            job = writeChunk(job, chunk, row);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import job " + job.getId() + " was taken over by another upload", e);
+        } catch (JsonProcessingException e) {
+            String error = "row " + (row + 1) + ": " + e.getOriginalMessage();
+            fail(job.getId(), error);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error, e);
+        } catch (IOException | RuntimeException e) {
+            fail(job.getId(), e.getMessage());
+            throw e;
+        }
+        return toDto(job);
+    }
+
+    // the rows and the job progress commit together, so a resumed upload never imports a row twice
+    private TodoImportJob writeChunk(TodoImportJob job, List<Todo> chunk, long rowsRead) {
+        job.setRowsRead(rowsRead);
+        job.setRowsImported(job.getRowsImported() + chunk.size());
+        TodoImportJob saved = transactionTemplate.execute(status -> {
+            insert(chunk);
+            TodoStatsCounters.Changes changes = new TodoStatsCounters.Changes();
+            chunk.forEach(todo -> changes.created(todo.getUserId(), todo.getStatus()));
+            statsCounters.apply(changes);
+            return jobRepo.save(job);
+        });
+
+        List<TodoResponseDto> todos = chunk.stream().map(TodoService::toResponseDto).toList();
+        Set<Long> userIds = chunk.stream().map(Todo::getUserId).collect(Collectors.toCollection(HashSet::new));
+        for (Long userId : userIds) {
+            todoCache.evictUserTodos(userId);
+            readYourWrites.recordUserWrite(userId);
+        }
+        searchIndex.addAll(todos);
+        imported.increment(chunk.size());
+        chunk.clear();
+        return saved;
+    }
+
+    private void insert(List<Todo> chunk) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator ids = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Todo.class).getGenerator();
+        // the database keeps microseconds, the returned todos must carry the same value (see TodoETags)
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (Todo todo : chunk) {
+            todo.setId((Long) ids.generate(session, todo));
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todo.setVersion(0L);
+            rows.add(new Object[] {todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus().name(),
+                    todo.getUserId(), now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    // copies the row into the todo, or returns why the row is rejected
+    private String fill(Todo todo, TodoImportRowDto values, Long defaultUserId) {
+        todo.setTitle(values.getTitle());
+        todo.setDescription(values.getDescription());
+        todo.setUserId(values.getUserId() != null ? values.getUserId() : defaultUserId);
+        if (values.getStatus() == null) {
+            todo.setStatus(TodoStatus.PENDING);
+        } else {
+            try {
+                todo.setStatus(TodoStatus.valueOf(values.getStatus().trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return "Unknown status " + values.getStatus();
+            }
+        }
+        if (todo.getUserId() == null) {
+            return "userId is mandatory";
+        }
+        if (todo.getTitle() != null && todo.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "Title should not exceed " + MAX_TITLE_LENGTH + " characters";
+        }
+        Set<ConstraintViolation<Todo>> violations = validator.validate(todo);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+    }
+
+    private ObjectReader reader(MediaType format) {
+        if (format != null && format.isCompatibleWith(TodoCsv.MEDIA_TYPE)) {
+            return TodoCsv.importReader();
+        }
+        return objectMapper.readerFor(TodoImportRowDto.class);
+    }
+
+    private TodoImportJob newJob(Long userId) {
+        TodoImportJob job = new TodoImportJob();
+        job.setUserId(userId);
+        job.setStatus(TodoImportStatus.CREATED);
+        return jobRepo.save(job);
+    }
+
+    private void fail(Long jobId, String error) {
+        jobRepo.findById(jobId).ifPresent(job -> {
+            job.setStatus(TodoImportStatus.FAILED);
+            job.setLastError(truncate(error));
+            jobRepo.save(job);
+        });
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static TodoImportJobDto toDto(TodoImportJob job) {
+        return new TodoImportJobDto(job.getId(), job.getUserId(), job.getStatus(), job.getRowsRead(), job.getRowsImported(),
+                job.getRowsRejected(), job.getLastError(), job.getCreatedAt(), job.getUpdatedAt());
+    }
+}
@@ -1,30 +1,123 @@
 package com.first.todo.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import com.first.todo.repository.ArchivedTodoRepo;
 import com.first.todo.repository.TodoRepo;
+import com.first.todo.config.ReadYourWrites;
 import com.first.todo.model.Todo;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.model.UserTodoStats;
+import com.first.todo.dto.CacheStatsDto;
+import com.first.todo.dto.TodoBatchOperationDto;
+import com.first.todo.dto.TodoBatchOperationType;
+import com.first.todo.dto.TodoChangeView;
+import com.first.todo.dto.TodoBatchResultDto;
+import com.first.todo.dto.TodoPageResponseDto;
 import com.first.todo.dto.TodoResponseDto;
 import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoSyncResponseDto;
+import com.first.todo.dto.TodoStatsDto;
+import com.first.todo.dto.TodoStatusCountDto;
+import com.first.todo.dto.TodoStatusView;
+import com.first.todo.event.TodoChangeType;
+import com.first.todo.event.TodoChangedEvent;
+import com.first.todo.search.TodoSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 import com.first.todo.repository.UserRepo;
 
 
 @Service
+@Timed(value = "todo.service", description = "Service method execution time")
 public class TodoService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    // rows written between two flushes of the export stream
+    private static final int EXPORT_FLUSH_EVERY = 500;
     
     @Autowired
     private TodoRepo todoRepo;
     @Autowired
     private UserRepo userRepo;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TodoCache todoCache;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private TodoStatusWriteBehind statusWriteBehind;
+    @Autowired
+    private TodoSearchIndex searchIndex;
+    @Autowired
+    private TodoStatsCounters statsCounters;
+    @Autowired
+    private ArchivedTodoRepo archivedTodoRepo;
 
-    public TodoService(TodoRepo todoRepo, UserRepo userRepo) {
+    @Value("${todo.batch.max-operations:1000}")
+    private int maxBatchOperations = 1000;
+    // changes younger than this are held back from sync, so a transaction that commits late cannot slip behind a token
+    @Value("${todo.sync.settle-lag:2s}")
+    private Duration syncSettleLag = Duration.ofSeconds(2);
+    @Value("${todo.sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    public TodoService(TodoRepo todoRepo, UserRepo userRepo, ObjectMapper objectMapper, TodoCache todoCache, Validator validator,
+                       ApplicationEventPublisher eventPublisher, ReadYourWrites readYourWrites,
+                       TodoStatusWriteBehind statusWriteBehind, TodoSearchIndex searchIndex, TodoStatsCounters statsCounters,
+                       ArchivedTodoRepo archivedTodoRepo) {
         this.todoRepo = todoRepo;
         this.userRepo = userRepo;
+        this.objectMapper = objectMapper;
+        this.todoCache = todoCache;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        this.statusWriteBehind = statusWriteBehind;
+        this.searchIndex = searchIndex;
+        this.statsCounters = statsCounters;
+        this.archivedTodoRepo = archivedTodoRepo;
     }
 
+    @Transactional
     public TodoResponseDto createTodo(TodoRequestDto todoRequestDto, Long userId) {
         // Check if the user exists
         Todo todo = new Todo();
@@ -36,50 +129,559 @@ public class TodoService {
         todo.setUpdatedAt(LocalDateTime.now());
 
         Todo savedTodo = todoRepo.save(todo);
-        //get user 
-
-
-        TodoResponseDto response = new TodoResponseDto(savedTodo.getId(), savedTodo.getTitle(), savedTodo.getDescription(), savedTodo.getStatus(), savedTodo.getUserId(), savedTodo.getCreatedAt(), savedTodo.getUpdatedAt());
+        todoCache.evictUserTodos(userId);
+        TodoStatsCounters.Changes changes = new TodoStatsCounters.Changes();
+        changes.created(userId, savedTodo.getStatus());
+        statsCounters.apply(changes);
 
+        TodoResponseDto response = toResponseDto(savedTodo);
+        publish(TodoChangeType.CREATED, response);
         return response;
  }
     public TodoResponseDto getTodoById(Long id) {
-        Todo todo = todoRepo.findById(id).orElseThrow(() -> new RuntimeException("Todo not found"));
-        return new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(), todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt());
+        TodoResponseDto todo = todoCache.getTodo(id, () -> readYourWrites.readTodo(id, () -> todoRepo.findResponseById(id))
+                .orElseThrow(() -> new RuntimeException("Todo not found")));
+        return statusWriteBehind.overlay(todo);
+    }
+
+    // with includeArchived a todo moved to todo_archive is found too; archived todos are not cached, they never change
+    public TodoResponseDto getTodoById(Long id, boolean includeArchived) {
+        if (includeArchived && todoCache.cachedOwnerOf(id).isEmpty()) {
+            Optional<TodoResponseDto> archived = archivedTodoRepo.findResponseById(id);
+            if (archived.isPresent()) {
+                return archived.get();
+            }
+        }
+        return getTodoById(id);
     }
 
+    @Transactional
     public void deleteTodo(Long id) {
-        Todo todo = todoRepo.findById(id).orElseThrow(() -> new RuntimeException("Todo not found"));
-        todoRepo.delete(todo);
+        // the owner (to evict its cached list and address the change event) is usually known from the cached todo
+        Long userId = todoCache.cachedOwnerOf(id).orElseGet(() -> todoRepo.findUserIdById(id).orElse(null));
+        List<TodoStatusView> before = statsCounters.lockStatuses(List.of(id));
+        // soft delete: the tombstone lets sync clients learn about the deletion, TombstonePurgeJob removes it later
+        if (todoRepo.softDeleteTodoById(id, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Todo not found");
+        }
+        statsCounters.removed(before);
+        todoCache.evictTodo(id);
+        todoCache.evictUserTodos(userId);
+        changed(TodoChangeType.DELETED, id, userId, null);
+    }
+
+    // removes every todo of a user (archived ones too), used when the user itself is deleted
+    @Transactional
+    public void deleteTodosOfUser(Long userId) {
+        archivedTodoRepo.deleteByUserId(userId);
+        List<Long> ids = todoRepo.findIdsByUserId(userId);
+        if (ids.isEmpty()) {
+            return;
+        }
+        todoRepo.deleteTodosByUserId(userId);
+        statsCounters.deleteUser(userId);
+        readYourWrites.recordUserWrite(userId);
+        ids.forEach(todoCache::evictTodo);
+        todoCache.evictUserTodos(userId);
+        ids.forEach(id -> changed(TodoChangeType.DELETED, id, userId, null));
     }
 
+    @Transactional
     public TodoResponseDto updateTodo(Long id, TodoRequestDto todoRequestDto) {
+        return updateTodo(id, todoRequestDto, null);
+    }
+
+    /**
+     * Replaces title, description and status. With an expected version the update is refused with 409 when
+     * the todo is at another version; either way the UPDATE itself is version checked, so a concurrent change
+     * between the read and the write is refused with 409 as well instead of being overwritten.
+     */
+    @Transactional
+    public TodoResponseDto updateTodo(Long id, TodoRequestDto todoRequestDto, Long expectedVersion) {
+        // the status is replaced, a buffered one is outdated
+        statusWriteBehind.takePending(id);
         Todo todo = todoRepo.findById(id).orElseThrow(() -> new RuntimeException("Todo not found"));
+        checkVersion(todo, expectedVersion);
+        TodoStatus previousStatus = todo.getStatus();
         todo.setTitle(todoRequestDto.getTitle());
         todo.setDescription(todoRequestDto.getDescription());
         todo.setStatus(todoRequestDto.getStatus());
-        todo.setUpdatedAt(LocalDateTime.now());
+        return saveChanges(todo, previousStatus);
+    }
+
+    /**
+     * Changes only the fields that are set in the request, the others keep their value. The UPDATE only
+     * carries the changed columns; a patch that changes nothing writes nothing.
+     */
+    @Transactional
+    public TodoResponseDto patchTodo(Long id, TodoRequestDto patch, Long expectedVersion) {
+        TodoStatus bufferedStatus = statusWriteBehind.takePending(id);
+        Todo todo = todoRepo.findById(id).orElseThrow(() -> new RuntimeException("Todo not found"));
+        checkVersion(todo, expectedVersion);
+        TodoStatus previousStatus = todo.getStatus();
+        // an acknowledged status still in the write-behind buffer is written with the patch
+        if (bufferedStatus != null) {
+            todo.setStatus(bufferedStatus);
+        }
+        if (patch.getTitle() != null) {
+            todo.setTitle(patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            todo.setDescription(patch.getDescription());
+        }
+        if (patch.getStatus() != null) {
+            todo.setStatus(patch.getStatus());
+        }
+        return saveChanges(todo, previousStatus);
+    }
 
-        Todo updatedTodo = todoRepo.save(todo);
+    /**
+     * Changes only the status, with a single UPDATE instead of loading and saving the whole row. With
+     * todo.status-write-behind.enabled the change is buffered and null is returned right away, see
+     * {@link TodoStatusWriteBehind} for when it reaches the database.
+     */
+    @Transactional
+    public TodoResponseDto updateTodoStatus(Long id, TodoStatus status) {
+        return updateTodoStatus(id, status, null);
+    }
 
-        return new TodoResponseDto(updatedTodo.getId(), updatedTodo.getTitle(), updatedTodo.getDescription(), updatedTodo.getStatus(), updatedTodo.getUserId(), updatedTodo.getCreatedAt(), updatedTodo.getUpdatedAt());
+    // with an expected version the change is conditional (409 on another version) and never buffered
+    @Transactional
+    public TodoResponseDto updateTodoStatus(Long id, TodoStatus status, Long expectedVersion) {
+        if (status == null) {
+            throw new RuntimeException("Status is mandatory");
+        }
+        if (statusWriteBehind.isEnabled() && expectedVersion == null) {
+            statusWriteBehind.submit(id, status);
+            return null;
+        }
+        statusWriteBehind.takePending(id);
+        List<TodoStatusView> before = statsCounters.lockStatuses(List.of(id));
+        LocalDateTime now = LocalDateTime.now();
+        int updated = expectedVersion == null
+                ? todoRepo.updateStatus(List.of(id), status, now)
+                : todoRepo.updateStatusIfVersion(id, status, expectedVersion, now);
+        if (updated == 0) {
+            if (expectedVersion != null && todoRepo.existsById(id)) {
+                throw conflict(null);
+            }
+            throw new RuntimeException("Todo not found");
+        }
+        statsCounters.statusChanged(before, status);
+        TodoResponseDto response = todoRepo.findResponseById(id).orElseThrow(() -> new RuntimeException("Todo not found"));
+        todoCache.evictTodo(id);
+        todoCache.evictUserTodos(response.getUserId());
+        publish(TodoChangeType.UPDATED, response);
+        return response;
     }
 
+    /**
+     * Loads the whole table into memory, use {@link #getTodosPage} or {@link #exportTodos} instead.
+     */
+    @Deprecated
+    @Transactional(readOnly = true)
     public List<TodoResponseDto> getAllTodos() {
         List<Todo> todos = todoRepo.findAll();
         List<TodoResponseDto> response = new ArrayList<>();
         for (Todo todo : todos) {
-            response.add(new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(), todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt()));
+            response.add(toResponseDto(todo));
         }
         return response;
     }
 
+    // keyset pagination on id, "after" is the nextCursor of the previous page (null for the first page)
+    public TodoPageResponseDto getTodosPage(Long after, Integer size, TodoStatus status, Long userId) {
+        return getTodosPage(after, size, status, userId, false);
+    }
+
+    // with includeArchived the page is merged from both tables in id order, so the cursor works across them
+    public TodoPageResponseDto getTodosPage(Long after, Integer size, TodoStatus status, Long userId, boolean includeArchived) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = after == null ? 0L : after;
+
+        // fetch one extra row to know whether another page exists
+        List<TodoResponseDto> todos = userId == null
+                ? todoRepo.findPageAfter(afterId, status, null, Limit.of(pageSize + 1))
+                : readYourWrites.readUser(userId, () -> todoRepo.findPageAfter(afterId, status, userId, Limit.of(pageSize + 1)));
+        if (includeArchived) {
+            List<TodoResponseDto> archived = userId == null
+                    ? archivedTodoRepo.findPageAfter(afterId, status, null, Limit.of(pageSize + 1))
+                    : readYourWrites.readUser(userId, () -> archivedTodoRepo.findPageAfter(afterId, status, userId, Limit.of(pageSize + 1)));
+            todos = mergeById(todos, archived, pageSize + 1);
+        }
+        boolean hasMore = todos.size() > pageSize;
+        List<TodoResponseDto> response = hasMore ? todos.subList(0, pageSize) : todos;
+        Long nextCursor = hasMore ? response.get(response.size() - 1).getId() : null;
+        return new TodoPageResponseDto(response, nextCursor, hasMore);
+    }
+
+    // writes every matching todo as one JSON object per line, rows are read as DTOs so nothing accumulates in the persistence context
+    @Transactional(readOnly = true)
+    public void exportTodos(TodoStatus status, Long userId, OutputStream out) throws IOException {
+        // flushing is done here every EXPORT_FLUSH_EVERY rows, not after each value
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (Stream<TodoResponseDto> todos = streamForExport(status, userId)) {
+            Iterator<TodoResponseDto> iterator = todos.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.flush();
+    }
+
+    // the same rows as CSV with a header line, in the layout TodoImporter reads back (see TodoCsv)
+    @Transactional(readOnly = true)
+    public void exportTodosCsv(TodoStatus status, Long userId, OutputStream out) throws IOException {
+        try (Stream<TodoResponseDto> todos = streamForExport(status, userId);
+             SequenceWriter writer = TodoCsv.exportWriter().writeValues(out)) {
+            Iterator<TodoResponseDto> iterator = todos.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    // the connection is taken by the first statement, so only opening the cursor needs the read-your-writes check
+    private Stream<TodoResponseDto> streamForExport(TodoStatus status, Long userId) {
+        return userId == null
+                ? todoRepo.streamAll(status, null)
+                : readYourWrites.readUser(userId, () -> todoRepo.streamAll(status, userId));
+    }
+
     public List<TodoResponseDto> getTodosByUserId(Long userId) {
-        List<Todo> todos = todoRepo.findByUserId(userId);
-        List<TodoResponseDto> response = new ArrayList<>();
-        for (Todo todo : todos) {
-            response.add(new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(), todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt()));
+        List<TodoResponseDto> todos = todoCache.getUserTodos(userId, () -> readYourWrites.readUser(userId, () -> todoRepo.findResponsesByUserId(userId)));
+        return statusWriteBehind.overlay(todos);
+    }
+
+    public List<TodoResponseDto> getTodosByUserId(Long userId, boolean includeArchived) {
+        List<TodoResponseDto> todos = getTodosByUserId(userId);
+        if (!includeArchived) {
+            return todos;
         }
+        List<TodoResponseDto> archived = readYourWrites.readUser(userId, () -> archivedTodoRepo.findResponsesByUserId(userId));
+        return mergeById(todos, archived, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Todos of a user matching the text, best match first. Matching and ranking come from the search index,
+     * the todos themselves are loaded by primary key so the response never shows stale or deleted rows.
+     */
+    public List<TodoResponseDto> searchTodos(Long userId, String text, Integer size) {
+        if (userId == null) {
+            throw new RuntimeException("userId is mandatory");
+        }
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Long> ids = searchIndex.search(userId, text, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TodoResponseDto> todos = readYourWrites.readUser(userId, () -> todoRepo.findResponsesByIds(ids)).stream()
+                .filter(todo -> userId.equals(todo.getUserId()))
+                .collect(Collectors.toMap(TodoResponseDto::getId, Function.identity()));
+        return statusWriteBehind.overlay(ids.stream().map(todos::get).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Applies all operations in one transaction. Invalid or missing items are reported per item and do not
+     * abort the rest; inserts, updates and deletes are flushed together so Hibernate can send them as JDBC batches.
+     * A concurrent change to one of the todos refuses the whole batch with 409.
+     */
+    @Transactional
+    public List<TodoBatchResultDto> applyBatch(List<TodoBatchOperationDto> operations) {
+        if (operations == null || operations.isEmpty()) {
+            return List.of();
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new RuntimeException("Batch exceeds " + maxBatchOperations + " operations");
+        }
+
+        // load every todo touched by an update or delete with a single query
+        Set<Long> ids = operations.stream()
+                .filter(operation -> operation != null && operation.getId() != null)
+                .map(TodoBatchOperationDto::getId)
+                .collect(Collectors.toSet());
+        // updates and deletes replace the status, buffered ones are outdated
+        ids.forEach(statusWriteBehind::takePending);
+        Map<Long, Todo> existing = new HashMap<>();
+        List<Todo> loaded = statsCounters.isEnabled() && !ids.isEmpty() ? todoRepo.findAllByIdForUpdate(ids) : todoRepo.findAllById(ids);
+        for (Todo todo : loaded) {
+            existing.put(todo.getId(), todo);
+        }
+
+        Todo[] applied = new Todo[operations.size()];
+        TodoBatchResultDto[] results = new TodoBatchResultDto[operations.size()];
+        Set<Long> touchedUserIds = new HashSet<>();
+        TodoStatsCounters.Changes changes = new TodoStatsCounters.Changes();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < operations.size(); i++) {
+            TodoBatchOperationDto operation = operations.get(i);
+            if (operation == null || operation.getType() == null) {
+                results[i] = failed(i, operation, "Operation type is mandatory");
+                continue;
+            }
+            switch (operation.getType()) {
+                case CREATE -> {
+                    if (operation.getUserId() == null) {
+                        results[i] = failed(i, operation, "userId is mandatory");
+                        continue;
+                    }
+                    Todo todo = new Todo();
+                    todo.setTitle(operation.getTitle());
+                    todo.setDescription(operation.getDescription());
+                    todo.setStatus(operation.getStatus());
+                    todo.setUserId(operation.getUserId());
+                    todo.setCreatedAt(now);
+                    todo.setUpdatedAt(now);
+                    String error = validate(todo);
+                    if (error != null) {
+                        results[i] = failed(i, operation, error);
+                        continue;
+                    }
+                    applied[i] = todoRepo.save(todo);
+                    changes.created(todo.getUserId(), todo.getStatus());
+                    touchedUserIds.add(todo.getUserId());
+                }
+                case UPDATE -> {
+                    Todo todo = existing.get(operation.getId());
+                    if (todo == null) {
+                        results[i] = failed(i, operation, "Todo not found");
+                        continue;
+                    }
+                    Todo candidate = Todo.builder()
+                            .title(operation.getTitle())
+                            .description(operation.getDescription())
+                            .status(operation.getStatus())
+                            .build();
+                    String error = validate(candidate);
+                    if (error != null) {
+                        results[i] = failed(i, operation, error);
+                        continue;
+                    }
+                    changes.statusChanged(todo.getUserId(), todo.getStatus(), candidate.getStatus());
+                    todo.setTitle(candidate.getTitle());
+                    todo.setDescription(candidate.getDescription());
+                    todo.setStatus(candidate.getStatus());
+                    todo.setUpdatedAt(now);
+                    applied[i] = todo;
+                    touchedUserIds.add(todo.getUserId());
+                    todoCache.evictTodo(todo.getId());
+                }
+                case DELETE -> {
+                    // removed from the map so a later operation on the same id reports it as missing
+                    Todo todo = existing.remove(operation.getId());
+                    if (todo == null) {
+                        results[i] = failed(i, operation, "Todo not found");
+                        continue;
+                    }
+                    changes.removed(todo.getUserId(), todo.getStatus());
+                    todo.setDeleted(true);
+                    todo.setDeletedAt(now);
+                    todo.setUpdatedAt(now);
+                    results[i] = new TodoBatchResultDto(i, operation.getType(), todo.getId(), true, null, null);
+                    changed(TodoChangeType.DELETED, todo.getId(), todo.getUserId(), null);
+                    touchedUserIds.add(todo.getUserId());
+                    todoCache.evictTodo(todo.getId());
+                }
+            }
+        }
+        // every statement of the batch goes to the database here, grouped per table and operation; a todo changed
+        // concurrently since it was loaded fails its version check and the whole batch is rolled back with 409
+        try {
+            todoRepo.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw conflict(e);
+        }
+        statsCounters.apply(changes);
+        touchedUserIds.forEach(todoCache::evictUserTodos);
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                Todo todo = applied[i];
+                TodoResponseDto response = toResponseDto(todo);
+                results[i] = new TodoBatchResultDto(i, operations.get(i).getType(), todo.getId(), true, null, response);
+                publish(operations.get(i).getType() == TodoBatchOperationType.CREATE ? TodoChangeType.CREATED : TodoChangeType.UPDATED, response);
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Changes of a user since a sync token, deletions and archivals included, in (updatedAt, id) order. Archived
+     * todos are listed apart from deleted ones: they left the default reads but still exist. A null token starts
+     * from the beginning. Tokens older than the tombstone retention are refused with 410, the client then
+     * reloads the full list and syncs from the token of that reload.
+     */
+    @Transactional(readOnly = true)
+    public TodoSyncResponseDto syncTodos(Long userId, String since, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+        TodoSyncToken token = since == null ? TodoSyncToken.START : TodoSyncToken.parse(since);
+        if (since != null && token.updatedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync token expired, reload the full list");
+        }
+
+        TodoSyncToken after = token;
+        List<TodoChangeView> rows = readYourWrites.readUser(userId, () -> todoRepo.findChangesAfter(userId,
+                after.updatedAt(), after.id(), now.minus(syncSettleLag), pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<TodoChangeView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<TodoResponseDto> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        List<Long> archived = new ArrayList<>();
+        for (TodoChangeView row : page) {
+            if (Boolean.TRUE.equals(row.getDeleted())) {
+                (row.getArchivedId() != null ? archived : deleted).add(row.getId());
+            } else {
+                changed.add(new TodoResponseDto(row.getId(), row.getTitle(), row.getDescription(), row.getStatus(),
+                        row.getUserId(), row.getCreatedAt(), row.getUpdatedAt(), row.getVersion()));
+            }
+        }
+        if (!page.isEmpty()) {
+            TodoChangeView last = page.get(page.size() - 1);
+            token = new TodoSyncToken(last.getUpdatedAt(), last.getId());
+        }
+        return new TodoSyncResponseDto(changed, deleted, archived, token.toString(), hasMore);
+    }
+
+    // ETag of a user's list without loading it: from the cached list, or from an aggregate over the index
+    public String getTodosETag(Long userId) {
+        return todoCache.cachedUserTodos(userId)
+                .map(todos -> TodoETags.of(userId, todos))
+                .orElseGet(() -> TodoETags.of(userId, readYourWrites.readUser(userId, () -> todoRepo.findListVersionByUserId(userId))));
+    }
+
+    public TodoStatsDto getTodoStats(Long userId) {
+        return getTodoStats(userId, false);
+    }
+
+    /**
+     * Todo counts of a user per status. With todo.stats.counters.enabled this reads the user's counter row,
+     * otherwise it is one GROUP BY status query over the index. Buffered status updates are not counted until flushed.
+     * Archived todos are left out unless includeArchived is set, so totals and the completion rate drop after an
+     * archival run; with it their counts are added from todo_archive.
+     */
+    public TodoStatsDto getTodoStats(Long userId, boolean includeArchived) {
+        Map<TodoStatus, Long> byStatus = new EnumMap<>(TodoStatus.class);
+        for (TodoStatus status : TodoStatus.values()) {
+            byStatus.put(status, 0L);
+        }
+        long total = 0;
+        if (statsCounters.isEnabled()) {
+            UserTodoStats counters = readYourWrites.readUser(userId, () -> statsCounters.read(userId)).orElse(null);
+            if (counters != null) {
+                total = counters.getTotal();
+                byStatus.put(TodoStatus.PENDING, counters.getPending());
+                byStatus.put(TodoStatus.IN_PROGRESS, counters.getInProgress());
+                byStatus.put(TodoStatus.COMPLETED, counters.getCompleted());
+            }
+        } else {
+            for (TodoStatusCountDto group : readYourWrites.readUser(userId, () -> todoRepo.countByStatus(userId))) {
+                total += group.getCount();
+                if (group.getStatus() != null) {
+                    byStatus.put(group.getStatus(), group.getCount());
+                }
+            }
+        }
+        if (includeArchived) {
+            for (TodoStatusCountDto group : readYourWrites.readUser(userId, () -> archivedTodoRepo.countByStatus(userId))) {
+                total += group.getCount();
+                if (group.getStatus() != null) {
+                    byStatus.merge(group.getStatus(), group.getCount(), Long::sum);
+                }
+            }
+        }
+        double completionRate = total == 0 ? 0 : (double) byStatus.get(TodoStatus.COMPLETED) / total;
+        return new TodoStatsDto(userId, total, byStatus, completionRate);
+    }
+
+    public Map<String, CacheStatsDto> getCacheStats() {
+        return todoCache.stats();
+    }
+
+    private void publish(TodoChangeType type, TodoResponseDto todo) {
+        changed(type, todo.getId(), todo.getUserId(), todo);
+    }
+
+    // the event is delivered to subscribers by TodoEventRelay only after the surrounding transaction commits
+    private void changed(TodoChangeType type, Long todoId, Long userId, TodoResponseDto todo) {
+        readYourWrites.recordTodoWrite(todoId, userId);
+        eventPublisher.publishEvent(new TodoChangedEvent(type, todoId, userId, todo));
+    }
+
+    // sends the version-checked UPDATE now, so a conflict surfaces here as 409 rather than at commit
+    private TodoResponseDto saveChanges(Todo changed, TodoStatus previousStatus) {
+        Todo todo;
+        try {
+            todo = todoRepo.saveAndFlush(changed);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw conflict(e);
+        }
+        // the version check makes previousStatus the status this UPDATE replaced, no row lock needed for the counters
+        TodoStatsCounters.Changes changes = new TodoStatsCounters.Changes();
+        changes.statusChanged(todo.getUserId(), previousStatus, todo.getStatus());
+        statsCounters.apply(changes);
+        todoCache.evictTodo(todo.getId());
+        todoCache.evictUserTodos(todo.getUserId());
+
+        TodoResponseDto response = toResponseDto(todo);
+        publish(TodoChangeType.UPDATED, response);
         return response;
     }
+
+    // two lists in id order merged into one, cut at limit
+    private static List<TodoResponseDto> mergeById(List<TodoResponseDto> first, List<TodoResponseDto> second, int limit) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<TodoResponseDto> merged = new ArrayList<>(Math.min(first.size() + second.size(), limit));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j == second.size() || (i < first.size() && first.get(i).getId() < second.get(j).getId())) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static void checkVersion(Todo todo, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+            throw conflict(null);
+        }
+    }
+
+    private static ResponseStatusException conflict(Throwable cause) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Todo was changed by someone else, reload it and retry", cause);
+    }
+
+    private String validate(Todo todo) {
+        Set<ConstraintViolation<Todo>> violations = validator.validate(todo);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+    }
+
+    private static TodoBatchResultDto failed(int index, TodoBatchOperationDto operation, String error) {
+        return new TodoBatchResultDto(index, operation == null ? null : operation.getType(),
+                operation == null ? null : operation.getId(), false, error, null);
+    }
+
+    static TodoResponseDto toResponseDto(Todo todo) {
+        return new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(), todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.first.todo.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.dto.TodoStatusView;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.model.UserTodoStats;
+import com.first.todo.repository.TodoRepo;
+import com.first.todo.repository.TodoStatsRepo;
+
+/**
+ * Optional per-user counters (todo_user_stats) so stats are one primary key read instead of a GROUP BY over the
+ * user's todos. TodoService and TodoStatusWriteBehind add their deltas in the transaction of the write itself.
+ * The status a change starts from is read under a row lock (bulk and batch changes) or guarded by the todo's
+ * version (single updates), so two concurrent changes of the same todo cannot both count the same transition.
+ * Disabled, every method here is a no-op and no lock is taken.
+ */
+@Component
+public class TodoStatsCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoStatsCounters.class);
+
+    private final TodoStatsRepo todoStatsRepo;
+    private final TodoRepo todoRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public TodoStatsCounters(TodoStatsRepo todoStatsRepo, TodoRepo todoRepo, TransactionTemplate transactionTemplate,
+                             @Value("${todo.stats.counters.enabled:false}") boolean enabled) {
+        this.todoStatsRepo = todoStatsRepo;
+        this.todoRepo = todoRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<UserTodoStats> read(Long userId) {
+        return todoStatsRepo.findByUserId(userId);
+    }
+
+    // owner and status of the todos before a bulk change, locked until the transaction ends; empty when disabled
+    public List<TodoStatusView> lockStatuses(Collection<Long> ids) {
+        return enabled && !ids.isEmpty() ? todoRepo.findStatusesForUpdate(ids) : List.of();
+    }
+
+    public void statusChanged(List<TodoStatusView> before, TodoStatus status) {
+        Changes changes = new Changes();
+        before.forEach(todo -> changes.statusChanged(todo.getUserId(), todo.getStatus(), status));
+        apply(changes);
+    }
+
+    public void removed(List<TodoStatusView> before) {
+        Changes changes = new Changes();
+        before.forEach(todo -> changes.removed(todo.getUserId(), todo.getStatus()));
+        apply(changes);
+    }
+
+    // one upsert per user with a non-zero delta
+    public void apply(Changes changes) {
+        if (!enabled) {
+            return;
+        }
+        changes.counts.forEach((userId, counts) -> {
+            if (userId != null && (counts[0] != 0 || counts[1] != 0 || counts[2] != 0 || counts[3] != 0)) {
+                todoStatsRepo.addCounts(userId, counts[0], counts[1], counts[2], counts[3]);
+            }
+        });
+    }
+
+    public void deleteUser(Long userId) {
+        if (enabled) {
+            todoStatsRepo.deleteByUserId(userId);
+        }
+    }
+
+    // every start recounts: counters kept while they were disabled (or by an older version) may have drifted
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (enabled) {
+            recount();
+        }
+    }
+
+    // safety net against drift from writes that bypass TodoService (manual SQL, restores, ...); off unless a cron is set
+    @Scheduled(cron = "${todo.stats.counters.reconcile-cron:-}")
+    public void reconcile() {
+        if (enabled) {
+            recount();
+        }
+    }
+
+    public int recount() {
+        Integer users = transactionTemplate.execute(status -> {
+            todoStatsRepo.deleteCountsWithoutTodos();
+            return todoStatsRepo.upsertCountsFromTodos();
+        });
+        log.info("Recounted todo stats of {} users", users);
+        return users == null ? 0 : users;
+    }
+
+    /**
+     * Deltas collected over a write, per user: total, pending, in progress, completed.
+     */
+    public static class Changes {
+
+        private final Map<Long, long[]> counts = new HashMap<>();
+
+        public void created(Long userId, TodoStatus status) {
+            add(userId, status, 1);
+            counts(userId)[0]++;
+        }
+
+        public void removed(Long userId, TodoStatus status) {
+            add(userId, status, -1);
+            counts(userId)[0]--;
+        }
+
+        public void statusChanged(Long userId, TodoStatus from, TodoStatus to) {
+            if (from != to) {
+                add(userId, from, -1);
+                add(userId, to, 1);
+            }
+        }
+
+        private void add(Long userId, TodoStatus status, int delta) {
+            if (status == null) {
+                return;
+            }
+            int column = switch (status) {
+                case PENDING -> 1;
+                case IN_PROGRESS -> 2;
+                case COMPLETED -> 3;
+            };
+            counts(userId)[column] += delta;
+        }
+
+        private long[] counts(Long userId) {
+            return counts.computeIfAbsent(userId, id -> new long[4]);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.first.todo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.config.ReadYourWrites;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoStatusView;
+import com.first.todo.event.TodoChangeType;
+import com.first.todo.event.TodoChangedEvent;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoRepo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind for status-only updates (todo.status-write-behind.enabled). Updates are acknowledged
+ * as soon as they are in memory, merged per todo id (last write wins) and written every interval, or earlier
+ * once max-pending ids are waiting, with one UPDATE per status. A synchronous write of the same todo takes
+ * its buffered status out first ({@link #takePending}), waiting for a flush already writing it, so the
+ * buffer never overwrites a newer committed status.
+ *
+ * Durability: an acknowledged update lives only in this instance's memory until the next flush. It is flushed
+ * on a graceful shutdown and retried when a flush fails, but lost if the process dies in between. Ids that do not
+ * exist (or were deleted) when the flush runs are dropped. Reads through TodoService see pending statuses on this
+ * instance only; updatedAt, ETags and events change when the flush commits.
+ */
+@Component
+public class TodoStatusWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoStatusWriteBehind.class);
+    // ids per UPDATE ... IN (...) statement
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private final TodoRepo todoRepo;
+    private final TodoCache todoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWrites readYourWrites;
+    private final TodoStatsCounters statsCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+    private final boolean enabled;
+    private final int maxPending;
+
+    private final Map<Long, TodoStatus> pending = new ConcurrentHashMap<>();
+    // drained by the running flush, still overlaid on reads until its transaction has committed
+    private final Map<Long, TodoStatus> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Counter received;
+    private final Counter written;
+    private final Counter dropped;
+
+    public TodoStatusWriteBehind(TodoRepo todoRepo, TodoCache todoCache, ApplicationEventPublisher eventPublisher,
+                                 ReadYourWrites readYourWrites, TodoStatsCounters statsCounters, TransactionTemplate transactionTemplate,
+                                 @Qualifier("applicationTaskExecutor") Executor taskExecutor, MeterRegistry registry,
+                                 @Value("${todo.status-write-behind.enabled:false}") boolean enabled,
+                                 @Value("${todo.status-write-behind.max-pending:1000}") int maxPending) {
+        this.todoRepo = todoRepo;
+        this.todoCache = todoCache;
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        this.statsCounters = statsCounters;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        // coalescing ratio = received / written
+        this.received = registry.counter("todo.status.write-behind.received");
+        this.written = registry.counter("todo.status.write-behind.written");
+        this.dropped = registry.counter("todo.status.write-behind.dropped");
+        registry.gaugeMapSize("todo.status.write-behind.pending", Tags.empty(), pending);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void submit(Long id, TodoStatus status) {
+        pending.put(id, status);
+        received.increment();
+        if (pending.size() >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Removes the buffered status of a todo a synchronous write is about to change and returns it (null when
+     * there is none). When a flush is writing the todo right now this waits until it has committed, so the
+     * caller's write lands after it. If the caller's transaction rolls back the status is buffered again.
+     */
+    public TodoStatus takePending(Long id) {
+        TodoStatus status = pending.remove(id);
+        if (inFlight.containsKey(id)) {
+            flushLock.lock();
+            flushLock.unlock();
+            // a failed flush put its status back
+            TodoStatus retried = pending.remove(id);
+            if (status == null) {
+                status = retried;
+            }
+        }
+        if (status != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TodoStatus taken = status;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completion) {
+                    if (completion == STATUS_ROLLED_BACK) {
+                        pending.putIfAbsent(id, taken);
+                    }
+                }
+            });
+        }
+        return status;
+    }
+
+    public TodoResponseDto overlay(TodoResponseDto todo) {
+        TodoStatus status = pending.get(todo.getId());
+        if (status == null) {
+            status = inFlight.get(todo.getId());
+        }
+        return status == null || status == todo.getStatus() ? todo : withStatus(todo, status);
+    }
+
+    public List<TodoResponseDto> overlay(List<TodoResponseDto> todos) {
+        if (pending.isEmpty() && inFlight.isEmpty()) {
+            return todos;
+        }
+        List<TodoResponseDto> result = new ArrayList<>(todos.size());
+        for (TodoResponseDto todo : todos) {
+            result.add(overlay(todo));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.status-write-behind.interval:250ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<TodoStatus, List<Long>> byStatus = drain();
+            if (byStatus.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(transaction -> write(byStatus));
+            } catch (RuntimeException e) {
+                // back in the buffer unless a newer status arrived meanwhile
+                byStatus.forEach((status, ids) -> ids.forEach(id -> pending.putIfAbsent(id, status)));
+                log.warn("Flushing {} buffered todo status updates failed, retrying on the next flush",
+                        byStatus.values().stream().mapToInt(List::size).sum(), e);
+            } finally {
+                inFlight.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // moves the buffer to inFlight, an entry is never in neither map between submit and commit
+    private Map<TodoStatus, List<Long>> drain() {
+        Map<TodoStatus, List<Long>> byStatus = new EnumMap<>(TodoStatus.class);
+        for (Long id : pending.keySet()) {
+            TodoStatus status = pending.get(id);
+            if (status != null) {
+                inFlight.put(id, status);
+                if (pending.remove(id, status)) {
+                    byStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(id);
+                } else {
+                    // replaced or taken meanwhile, left for the next flush or the synchronous write
+                    inFlight.remove(id);
+                }
+            }
+        }
+        return byStatus;
+    }
+
+    private void write(Map<TodoStatus, List<Long>> byStatus) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> updatedIds = new ArrayList<>();
+        int requested = 0;
+        int updated = 0;
+        for (Map.Entry<TodoStatus, List<Long>> entry : byStatus.entrySet()) {
+            List<Long> ids = entry.getValue();
+            requested += ids.size();
+            for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+                List<TodoStatusView> before = statsCounters.lockStatuses(chunk);
+                updated += todoRepo.updateStatus(chunk, entry.getKey(), now);
+                statsCounters.statusChanged(before, entry.getKey());
+                updatedIds.addAll(chunk);
+            }
+        }
+        written.increment(updated);
+        dropped.increment(requested - updated);
+
+        // owners are needed for the list evictions and the change events
+        for (int from = 0; from < updatedIds.size(); from += IN_CLAUSE_SIZE) {
+            for (TodoResponseDto todo : todoRepo.findResponsesByIds(updatedIds.subList(from, Math.min(from + IN_CLAUSE_SIZE, updatedIds.size())))) {
+                todoCache.evictTodo(todo.getId());
+                todoCache.evictUserTodos(todo.getUserId());
+                readYourWrites.recordTodoWrite(todo.getId(), todo.getUserId());
+                eventPublisher.publishEvent(new TodoChangedEvent(TodoChangeType.UPDATED, todo.getId(), todo.getUserId(), todo));
+            }
+        }
+    }
+
+    private static TodoResponseDto withStatus(TodoResponseDto todo, TodoStatus status) {
+        return new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), status, todo.getUserId(),
+                todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion());
+    }
+}
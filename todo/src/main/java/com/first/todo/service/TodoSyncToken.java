@@ -0,0 +1,36 @@
+package com.first.todo.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Position in a user's change feed: the (updatedAt, id) of the last change a client has seen. Deletions and
+ * archivals are changes too, their tombstones carry the time they happened.
+ * Written as "micros.id" so a client can store it as an opaque string.
+ */
+record TodoSyncToken(LocalDateTime updatedAt, long id) {
+
+    static final TodoSyncToken START = new TodoSyncToken(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    static TodoSyncToken parse(String token) {
+        int dot = token.indexOf('.');
+        try {
+            long micros = Long.parseLong(token.substring(0, dot));
+            long id = Long.parseLong(token.substring(dot + 1));
+            LocalDateTime updatedAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+            return new TodoSyncToken(updatedAt, id);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return micros + "." + id;
+    }
+}
@@ -0,0 +1,54 @@
+package com.first.todo.service;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.first.todo.config.ReadYourWrites;
+import com.first.todo.repository.UserRepo;
+
+/**
+ * Users of the user table for Spring Security. Only consulted when a password is checked (login);
+ * requests carrying a token are authenticated from the token alone. Logins always read the row: the
+ * name filter and the user cache are per instance, so a user registered on another instance, or a
+ * password changed there, would not be seen here until they are refreshed. The lookup is one unique
+ * index read next to a BCrypt check that is far slower.
+ */
+@Service
+public class TodoUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserRepo userRepo;
+    private final ReadYourWrites readYourWrites;
+    private final UserCache userCache;
+
+    public TodoUserDetailsService(UserRepo userRepo, ReadYourWrites readYourWrites, UserCache userCache) {
+        this.userRepo = userRepo;
+        this.readYourWrites = readYourWrites;
+        this.userCache = userCache;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        return readYourWrites.readUserByName(username, () -> userRepo.findByUsername(username))
+                .map(CachedUser::of)
+                .map(TodoUserDetailsService::toUserDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
+    // called after a successful login when the stored hash uses an outdated BCrypt cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepo.updatePassword(user.getUsername(), newPassword);
+        userCache.invalidate(user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
+    private static UserDetails toUserDetails(CachedUser user) {
+        return org.springframework.security.core.userdetails.User.withUsername(user.userName())
+                .password(user.password())
+                .roles(user.role().name())
+                .build();
+    }
+}
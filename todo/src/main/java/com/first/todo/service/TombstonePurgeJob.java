@@ -0,0 +1,85 @@
+package com.first.todo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.repository.TodoRepo;
+
+/**
+ * Removes todo tombstones once no valid sync token can still be behind them.
+ * Runs off-peak by default; sync tokens older than the retention get a 410 and do a full reload.
+ * Like TodoArchiver it works in chunks of chunk-size rows, each locked and deleted in one short transaction,
+ * with a pause between chunks so user writes are not held behind the row locks.
+ */
+@Component
+public class TombstonePurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstonePurgeJob.class);
+
+    private final TodoRepo todoRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Duration pause;
+
+    public TombstonePurgeJob(TodoRepo todoRepo, TransactionTemplate transactionTemplate,
+                             @Value("${todo.sync.tombstone-retention:30d}") Duration retention,
+                             @Value("${todo.sync.purge-chunk-size:500}") int chunkSize,
+                             @Value("${todo.sync.purge-pause:100ms}") Duration pause) {
+        this.todoRepo = todoRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    @Scheduled(cron = "${todo.sync.purge-cron:0 30 3 * * *}")
+    public int purge() {
+        return purgeDeletedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    // returns the number of tombstones removed; stops after the current chunk when the thread is interrupted
+    public int purgeDeletedBefore(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        int total = 0;
+        int purged;
+        do {
+            purged = purgeChunk(cutoff);
+            total += purged;
+            if (purged == chunkSize) {
+                pause();
+            }
+        } while (purged == chunkSize && !Thread.currentThread().isInterrupted());
+
+        if (total > 0) {
+            log.info("Purged {} todo tombstones deleted before {} in {} ms", total, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return total;
+    }
+
+    private int purgeChunk(LocalDateTime cutoff) {
+        Integer purged = transactionTemplate.execute(status -> {
+            List<Long> ids = todoRepo.findExpiredTombstonesForUpdate(cutoff, chunkSize);
+            return ids.isEmpty() ? 0 : todoRepo.deleteTombstones(ids);
+        });
+        return purged == null ? 0 : purged;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
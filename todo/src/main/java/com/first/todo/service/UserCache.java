@@ -0,0 +1,111 @@
+package com.first.todo.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.first.todo.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of user lookups by username and by email. Misses are cached too, for a much shorter time,
+ * so repeated lookups of names that do not exist (login attempts, bots probing names) stay off the database.
+ * UserService and TodoUserDetailsService invalidate entries on every write; another instance's writes
+ * are seen once the entry expires, which is why password checks never read from here (see
+ * TodoUserDetailsService). maximum-size=0 turns the cache off.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, Optional<CachedUser>> byUsername;
+    private final Cache<String, Optional<CachedUser>> byEmail;
+
+    public UserCache(MeterRegistry registry,
+                     @Value("${todo.users.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${todo.users.cache.ttl:5m}") Duration ttl,
+                     @Value("${todo.users.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.byUsername = CaffeineCacheMetrics.monitor(registry, build(maximumSize, ttl, negativeTtl), "users.byUsername");
+        this.byEmail = CaffeineCacheMetrics.monitor(registry, build(maximumSize, ttl, negativeTtl), "users.byEmail");
+    }
+
+    public Optional<CachedUser> getByUsername(String username, Supplier<Optional<User>> loader) {
+        return get(byUsername, username, loader);
+    }
+
+    public Optional<CachedUser> getByEmail(String email, Supplier<Optional<User>> loader) {
+        return get(byEmail, email, loader);
+    }
+
+    // names and emails that may have changed state, negative entries included (e.g. a name that was just taken)
+    public void invalidate(String... namesOrEmails) {
+        afterWrite(() -> {
+            for (String name : namesOrEmails) {
+                if (name != null) {
+                    byUsername.invalidate(name);
+                    byEmail.invalidate(name);
+                }
+            }
+        });
+    }
+
+    // every entry of a user whose names are not known to the caller, e.g. deleteUser which only has the id
+    public void invalidateUser(Long id) {
+        afterWrite(() -> {
+            byUsername.asMap().values().removeIf(user -> user.isPresent() && user.get().id().equals(id));
+            byEmail.asMap().values().removeIf(user -> user.isPresent() && user.get().id().equals(id));
+        });
+    }
+
+    // inside a transaction again after the commit, or a read between the two could cache the old row
+    private static void afterWrite(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static Optional<CachedUser> get(Cache<String, Optional<CachedUser>> cache, String key, Supplier<Optional<User>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        return cache.get(key, name -> loader.get().map(CachedUser::of));
+    }
+
+    private static Cache<String, Optional<CachedUser>> build(long maximumSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Optional<CachedUser>>() {
+                    @Override
+                    public long expireAfterCreate(String name, Optional<CachedUser> user, long currentTime) {
+                        return (user.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String name, Optional<CachedUser> user, long currentTime, long currentDuration) {
+                        return expireAfterCreate(name, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String name, Optional<CachedUser> user, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.first.todo.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.repository.UserRepo;
+
+/**
+ * Bloom filter of every username and email, so existence checks for names that are free (the common case
+ * for signups, and for bots probing names) are answered without the database. A "might exist" answer
+ * still goes to the database. Deleted users stay in the filter until the next rebuild; that only costs a
+ * lookup. Users registered on another instance are missing until this instance rebuilds its filter,
+ * so "free" is advisory: registration itself is enforced by the unique constraints, and logins do not
+ * ask the filter at all.
+ */
+@Component
+public class UserNameFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserNameFilter.class);
+
+    private final UserRepo userRepo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedUsers;
+    private final double falsePositiveProbability;
+    // null until the first load, every name "might exist" meanwhile
+    private volatile BloomFilter filter;
+    // the filter being loaded by a rebuild, names added meanwhile go to both
+    private volatile BloomFilter loading;
+
+    public UserNameFilter(UserRepo userRepo, PlatformTransactionManager transactionManager,
+                          @Value("${todo.users.name-filter.expected-users:100000}") long expectedUsers,
+                          @Value("${todo.users.name-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.userRepo = userRepo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    public boolean mightExistUsername(String username) {
+        return mightContain("u:", username);
+    }
+
+    public boolean mightExistEmail(String email) {
+        return mightContain("e:", email);
+    }
+
+    // called once the user row is committed
+    public void add(String username, String email) {
+        put("u:", username);
+        put("e:", email);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${todo.users.name-filter.rebuild-interval:10m}", initialDelayString = "${todo.users.name-filter.rebuild-interval:10m}")
+    public synchronized void rebuild() {
+        long users = userRepo.count();
+        // sized for growth, the false positive rate climbs once more names than expected are in
+        BloomFilter next = new BloomFilter(Math.max(expectedUsers, users * 2) * 2, falsePositiveProbability);
+        loading = next;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> names = userRepo.streamUserNames()) {
+                    names.forEach(name -> next.put(key("u:", name)));
+                }
+                try (Stream<String> emails = userRepo.streamEmails()) {
+                    emails.forEach(email -> next.put(key("e:", email)));
+                }
+            });
+            filter = next;
+            log.debug("User name filter loaded with {} users ({} KiB)", users, next.sizeInBytes() / 1024);
+        } finally {
+            loading = null;
+        }
+    }
+
+    private boolean mightContain(String prefix, String value) {
+        BloomFilter current = filter;
+        return value == null || current == null || current.mightContain(key(prefix, value));
+    }
+
+    private void put(String prefix, String value) {
+        if (value == null) {
+            return;
+        }
+        String key = key(prefix, value);
+        BloomFilter current = filter;
+        BloomFilter next = loading;
+        if (current != null) {
+            current.put(key);
+        }
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    // MySQL's default collation ignores case and accents, so "Zoé" must hit the entry of "zoe"
+    private static String key(String prefix, String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return prefix + folded.toLowerCase(Locale.ROOT);
+    }
+}
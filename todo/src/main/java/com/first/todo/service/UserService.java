@@ -1,47 +1,93 @@
 package com.first.todo.service;
 
 import org.springframework.stereotype.Service;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.hibernate.exception.ConstraintViolationException;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import com.first.todo.config.ReadYourWrites;
 import com.first.todo.dto.UserResponseDto;
 import com.first.todo.dto.UserRequestDto;
+import com.first.todo.dto.UserSummaryDto;
+import com.first.todo.dto.UserWithTodosDto;
+import com.first.todo.dto.TodoPageResponseDto;
+import com.first.todo.dto.TodoResponseDto;
 import com.first.todo.repository.UserRepo;
 
 
 import com.first.todo.model.User;
 
 @Service
+@Timed(value = "todo.service", description = "Service method execution time")
 public class UserService {
 
     @Autowired
     private final UserRepo userRepo;
     @Autowired
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    @Autowired
+    private final TodoService todoService;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
+    // database work after hashing runs here, never on the hashing pool
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private final Executor taskExecutor;
+    @Autowired
+    private final ReadYourWrites readYourWrites;
+    @Autowired
+    private final UserCache userCache;
+    @Autowired
+    private final UserNameFilter userNameFilter;
 
-    public UserService(UserRepo userRepo, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepo userRepo, PasswordHasher passwordHasher, TodoService todoService,
+                       TransactionTemplate transactionTemplate, @Qualifier("applicationTaskExecutor") Executor taskExecutor,
+                       ReadYourWrites readYourWrites, UserCache userCache, UserNameFilter userNameFilter) {
         this.userRepo = userRepo;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.todoService = todoService;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.readYourWrites = readYourWrites;
+        this.userCache = userCache;
+        this.userNameFilter = userNameFilter;
     }
 
-    public UserResponseDto registerUser(UserRequestDto user){
-        if(userRepo.existsByUsername(user.getUserName())){
-            throw new RuntimeException("Username already exists");
-        }
-        if(userRepo.existsByEmail(user.getEmail())){
-            throw new RuntimeException("Email already exists");
-        }
+    // the password is hashed on the hashing pool, the request thread is released until the user is stored
+    public CompletableFuture<UserResponseDto> registerUser(UserRequestDto user){
+        return passwordHasher.encode(user.getPassword())
+                .thenApplyAsync(encodedPassword -> insertUser(user, encodedPassword), taskExecutor);
+    }
 
+    // a single INSERT: duplicates are rejected by the unique constraints on userName and email
+    private UserResponseDto insertUser(UserRequestDto user, String encodedPassword){
         User newUser = new User();
         newUser.setUserName(user.getUserName());
         newUser.setEmail(user.getEmail());
-        newUser.setPassword(passwordEncoder.encode(user.getPassword()));
+        newUser.setPassword(encodedPassword);
         newUser.setCreatedAt(LocalDateTime.now());
         newUser.setUpdatedAt(LocalDateTime.now());
 
-        User savedUser = userRepo.save(newUser);
+        User savedUser;
+        try {
+            savedUser = userRepo.saveAndFlush(newUser);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUserException(e);
+        }
+        readYourWrites.recordUserWrite(savedUser.getId(), savedUser.getUserName(), savedUser.getEmail());
+        userNameFilter.add(savedUser.getUserName(), savedUser.getEmail());
+        userCache.invalidate(savedUser.getUserName(), savedUser.getEmail());
          
         UserResponseDto userResponseDto = new UserResponseDto();
         userResponseDto.setId(savedUser.getId());   
@@ -54,68 +100,134 @@ public class UserService {
 
     }
 
-    public User getUserById(Long id) {
-        return userRepo.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
+    public UserResponseDto getUserById(Long id) {
+        return readYourWrites.readUser(id, () -> userRepo.findById(id)).map(UserService::toResponseDto)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public UserResponseDto updateUser(Long id, UserRequestDto user) {
+    // user and every todo of the user from a single query
+    public UserWithTodosDto getUserWithTodos(Long id) {
+        User user = readYourWrites.readUser(id, () -> userRepo.findWithTodosById(id)).orElseThrow(() -> new RuntimeException("User not found"));
+        List<TodoResponseDto> todos = user.getTodos().stream().map(TodoService::toResponseDto).toList();
+        return new UserWithTodosDto(toResponseDto(user), todos, null, false);
+    }
 
-        User existingUser = userRepo.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
-        if(user.getUserName() != null){
-            existingUser.setUserName(user.getUserName());
-        }
-        if(user.getEmail() != null){
-            existingUser.setEmail(user.getEmail());
-        }
-        if(user.getPassword() != null){
-            existingUser.setPassword(passwordEncoder.encode(user.getPassword()));
-        }
-        existingUser.setUpdatedAt(LocalDateTime.now());
-        User updatedUser = userRepo.save(existingUser);
-        UserResponseDto userResponseDto = new UserResponseDto();
+    // user and one keyset page of their todos: two queries, the todo page is limited in SQL
+    public UserWithTodosDto getUserWithTodosPage(Long id, Long after, Integer size) {
+        UserResponseDto user = getUserById(id);
+        TodoPageResponseDto page = todoService.getTodosPage(after, size, null, id);
+        return new UserWithTodosDto(user, page.getTodos(), page.getNextCursor(), page.isHasMore());
+    }
 
-        userResponseDto.setId(updatedUser.getId());
-        userResponseDto.setUserName(updatedUser.getUserName());
-        userResponseDto.setEmail(updatedUser.getEmail());
-        userResponseDto.setRole(updatedUser.getRole());
-        userResponseDto.setCreatedAt(updatedUser.getCreatedAt());
-        userResponseDto.setUpdatedAt(updatedUser.getUpdatedAt());
+    // users after the given id with their todo counts, for the admin listing
+    public List<UserSummaryDto> getUserSummaries(Long after, Integer size) {
+        int pageSize = size == null ? TodoService.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, TodoService.MAX_PAGE_SIZE));
+        return userRepo.findSummariesAfter(after == null ? 0L : after, Limit.of(pageSize));
+    }
 
-        return userResponseDto;
+    public CompletableFuture<UserResponseDto> updateUser(Long id, UserRequestDto user) {
+        if(user.getPassword() == null){
+            return CompletableFuture.completedFuture(applyUpdate(id, user, null));
+        }
+        return passwordHasher.encode(user.getPassword())
+                .thenApplyAsync(encodedPassword -> applyUpdate(id, user, encodedPassword), taskExecutor);
+    }
 
+    private UserResponseDto applyUpdate(Long id, UserRequestDto user, String encodedPassword) {
+        return transactionTemplate.execute(status -> {
+            User existingUser = userRepo.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
+            // the old names too, a lookup by the old name must not still find the user on the replica
+            readYourWrites.recordUserWrite(id, existingUser.getUserName(), existingUser.getEmail(), user.getUserName(), user.getEmail());
+            if(user.getUserName() != null){
+                existingUser.setUserName(user.getUserName());
+            }
+            if(user.getEmail() != null){
+                existingUser.setEmail(user.getEmail());
+            }
+            if(encodedPassword != null){
+                existingUser.setPassword(encodedPassword);
+            }
+            existingUser.setUpdatedAt(LocalDateTime.now());
+            User updatedUser;
+            try {
+                updatedUser = userRepo.saveAndFlush(existingUser);
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateUserException(e);
+            }
+            userNameFilter.add(updatedUser.getUserName(), updatedUser.getEmail());
+            userCache.invalidateUser(id);
+            userCache.invalidate(updatedUser.getUserName(), updatedUser.getEmail());
+            UserResponseDto userResponseDto = new UserResponseDto();
+
+            userResponseDto.setId(updatedUser.getId());
+            userResponseDto.setUserName(updatedUser.getUserName());
+            userResponseDto.setEmail(updatedUser.getEmail());
+            userResponseDto.setRole(updatedUser.getRole());
+            userResponseDto.setCreatedAt(updatedUser.getCreatedAt());
+            userResponseDto.setUpdatedAt(updatedUser.getUpdatedAt());
+
+            return userResponseDto;
+        });
     }
 
+    @Transactional
     public void deleteUser(Long id){
-        User existingUser = userRepo.findById(id).orElseThrow(()-> new RuntimeException("User not found"));
-
-        userRepo.delete(existingUser);
-        if(userRepo.existsById(id)){
-            throw new RuntimeException("User deletion failed");
+        if(userRepo.deleteUserById(id) == 0){
+            throw new RuntimeException("User not found");
         }
+        readYourWrites.recordUserWrite(id);
+        userCache.invalidateUser(id);
+        todoService.deleteTodosOfUser(id);
     }
 
     public UserResponseDto getUserByUsername(String username) {
-        return userRepo.findByUsername(username)
-                        .map(user ->new UserResponseDto(user.getId(),user.getEmail(),user.getUserName(), user.getRole(), user.getCreatedAt(), user.getUpdatedAt()))
+        return findByUsername(username)
+                        .map(CachedUser::toResponseDto)
                         .orElseThrow(() -> new RuntimeException("User not found"));     
     }
 
     public UserResponseDto getUserByEmail(String email) {
-        return userRepo.findByEmail(email)
-                .map(user -> new UserResponseDto(user.getId(), user.getUserName(), user.getEmail(), user.getRole(), user.getCreatedAt(), user.getUpdatedAt()))
+        return findByEmail(email)
+                .map(CachedUser::toResponseDto)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
     }
 
+    // a name the filter has never seen is free without a query, the rest is answered by the user cache
     public boolean userExistsByUsername(String username) {
-        return userRepo.existsByUsername(username);
+        return userNameFilter.mightExistUsername(username) && findByUsername(username).isPresent();
     }
     public boolean userExistsByEmail(String email) {
-        return userRepo.existsByEmail(email);
+        return userNameFilter.mightExistEmail(email) && findByEmail(email).isPresent();
+    }
+
+    private Optional<CachedUser> findByUsername(String username) {
+        return userCache.getByUsername(username, () -> readYourWrites.readUserByName(username, () -> userRepo.findByUsername(username)));
+    }
+
+    private Optional<CachedUser> findByEmail(String email) {
+        return userCache.getByEmail(email, () -> readYourWrites.readUserByName(email, () -> userRepo.findByEmail(email)));
     }
     public boolean userExistsById(Long id) {
         return userRepo.existsById(id);
     }
 
+    private static UserResponseDto toResponseDto(User user) {
+        return new UserResponseDto(user.getId(), user.getUserName(), user.getEmail(), user.getRole(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    // maps a unique constraint violation to the same messages the old exists checks produced
+    private RuntimeException duplicateUserException(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation ? violation.getConstraintName() : null;
+        String detail = (constraint != null ? constraint : String.valueOf(e.getMostSpecificCause().getMessage())).toLowerCase();
+        if (detail.contains(User.USERNAME_CONSTRAINT)) {
+            return new RuntimeException("Username already exists");
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT)) {
+            return new RuntimeException("Email already exists");
+        }
+        return e;
+    }
+
     
 }
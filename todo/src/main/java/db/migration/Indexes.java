@@ -0,0 +1,45 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Index DDL for the Java migrations. MySQL has no "if [not] exists" for indexes, and databases baselined from
+ * ddl-auto=update may already have an index an @Index on the entities declared before its migration ran.
+ */
+final class Indexes {
+
+    private Indexes() {
+    }
+
+    static void createIfMissing(Connection connection, String table, String name, String columns) throws SQLException {
+        if (!exists(connection, table, name)) {
+            execute(connection, "create index " + name + " on " + table + " (" + columns + ")");
+        }
+    }
+
+    static void dropIfPresent(Connection connection, String table, String name) throws SQLException {
+        if (exists(connection, table, name)) {
+            execute(connection, "drop index " + name + " on " + table);
+        }
+    }
+
+    private static boolean exists(Connection connection, String table, String name) throws SQLException {
+        try (ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (indexes.next()) {
+                if (name.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void execute(Connection connection, String ddl) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(ddl);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Every JPQL read of todo filters on deleted = false (@SQLRestriction on Todo); with deleted in the index the per-user
+ * counts and list versions are answered from the index alone again instead of reading each row for the flag.
+ * <p>
+ * Java rather than SQL (see Indexes): databases baselined from ddl-auto=update may already have the new index
+ * and, when created after it, never had the old one.
+ */
+public class V2__todo_index_deleted extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Indexes.createIfMissing(context.getConnection(), "todo", "idx_todo_user_deleted_status_updated",
+                "user_id, deleted, status, updated_at");
+        Indexes.dropIfPresent(context.getConnection(), "todo", "idx_todo_user_status_updated");
+    }
+}
@@ -0,0 +1,16 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * TombstonePurgeJob reads expired tombstones in deleted_at order, chunk by chunk; without this index every chunk
+ * scans the todo table and locks what it passes.
+ */
+public class V4__todo_index_deleted_at extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Indexes.createIfMissing(context.getConnection(), "todo", "idx_todo_deleted_at", "deleted, deleted_at");
+    }
+}
@@ -0,0 +1,84 @@
+-- schema of the mapping as ddl-auto=update creates it on an empty database; existing databases are baselined at this
+-- version (spring.flyway.baseline-on-migrate), columns they created with an older mapping are fixed by later migrations.
+-- Databases of the application from before this series lack most of it: they need one start with ddl-auto=update
+-- (without the prod profile) first, FlywayBaselineCheck refuses to baseline them until then
+-- every later change to an entity needs a new V<n>__<description>.sql (or a Java migration in db.migration when the
+-- DDL depends on what the database already has), the prod profile only validates the mapping
+
+create table user (
+    id bigint not null auto_increment,
+    user_name varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    role enum ('ADMIN','USER') not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table user add constraint uk_user_username unique (user_name);
+alter table user add constraint uk_user_email unique (email);
+
+create table todo (
+    id bigint not null,
+    title varchar(255) not null,
+    description varchar(500),
+    status enum ('COMPLETED','IN_PROGRESS','PENDING'),
+    user_id bigint,
+    created_at datetime(6),
+    updated_at datetime(6),
+    deleted bit default false not null,
+    deleted_at datetime(6),
+    version bigint default 0 not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_todo_user_status_updated on todo (user_id, status, updated_at);
+create index idx_todo_user_updated on todo (user_id, updated_at, id);
+create index idx_todo_status_updated on todo (status, updated_at);
+
+-- the todo_seq sequence, emulated with a table on MySQL
+create table todo_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- TodoIdSequenceSeeder moves it above the existing ids on every start
+insert into todo_seq values (1);
+
+create table todo_archive (
+    id bigint not null,
+    title varchar(255),
+    description varchar(500),
+    status enum ('COMPLETED','IN_PROGRESS','PENDING'),
+    user_id bigint,
+    created_at datetime(6),
+    updated_at datetime(6),
+    version bigint not null,
+    archived_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_todo_archive_user on todo_archive (user_id, id);
+
+create table todo_user_stats (
+    user_id bigint not null,
+    total bigint not null,
+    pending bigint not null,
+    in_progress bigint not null,
+    completed bigint not null,
+    primary key (user_id)
+) engine=InnoDB;
+
+create table todo_import_job (
+    id bigint not null auto_increment,
+    user_id bigint,
+    status enum ('COMPLETED','CREATED','FAILED','RUNNING') not null,
+    rows_read bigint not null,
+    rows_imported bigint not null,
+    rows_rejected bigint not null,
+    last_error varchar(500),
+    created_at datetime(6),
+    updated_at datetime(6),
+    version bigint default 0 not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,5 @@
+-- description columns created before the mapping had length = 500 are varchar(255), too short for the 500 characters
+-- the validation accepts; a no-op where V1 created them. Development databases kept by ddl-auto=update are not widened
+-- by hibernate, run these statements on them by hand
+alter table todo modify column description varchar(500);
+alter table todo_archive modify column description varchar(500);
@@ -0,0 +1,68 @@
+package com.first.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.search.TodoSearchIndex;
+import com.first.todo.service.TodoService;
+import com.first.todo.service.UserNameFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Boots the application with a replica pool. Both pools point at the same embedded database
+ * (the schema is only created through the primary), so the test follows connections per pool.
+ * The search index and the user name filter are mocked: their startup loads are reads and would open replica connections.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "todo.datasource.replica.jdbc-url=jdbc:h2:mem:todo_routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "todo.datasource.replica.username=sa",
+        "todo.datasource.read-your-writes-window=0s"
+})
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primary;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replica;
+    @MockitoBean
+    private TodoSearchIndex searchIndex;
+    @MockitoBean
+    private UserNameFilter userNameFilter;
+
+    @Test
+    void readsUseTheReplicaPoolAndWritesThePrimaryPool() {
+        assertEquals("primary", primary.getPoolName());
+        assertEquals("replica", replica.getPoolName());
+
+        Long todoId = todoService.createTodo(new TodoRequestDto("routed", null, TodoStatus.PENDING), 301L).getId();
+        assertTrue(replica.getHikariPoolMXBean() == null || replica.getHikariPoolMXBean().getTotalConnections() == 0,
+                "the write must not open replica connections");
+
+        // search results are loaded by id, the first read of this test
+        when(searchIndex.search(301L, "routed", 20)).thenReturn(List.of(todoId));
+        assertEquals(List.of(todoId), todoService.searchTodos(301L, "routed", 20).stream().map(TodoResponseDto::getId).toList());
+        assertTrue(replica.getHikariPoolMXBean() != null && replica.getHikariPoolMXBean().getTotalConnections() > 0,
+                "search reads must use the replica");
+
+        assertEquals("routed", todoService.getTodoById(todoId).getTitle());
+        assertTrue(replica.getHikariPoolMXBean().getTotalConnections() > 0);
+        assertTrue(replica.isReadOnly());
+    }
+}
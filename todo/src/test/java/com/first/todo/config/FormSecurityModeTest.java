@@ -0,0 +1,35 @@
+package com.first.todo.config;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The form-login chain leaves the API open to anonymous callers, but not the admin endpoints.
+ */
+@SpringBootTest(properties = "todo.security.mode=form")
+@AutoConfigureMockMvc
+class FormSecurityModeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void adminEndpointsNeedTheAdminRole() throws Exception {
+        mockMvc.perform(post("/api/v1/todo/archiveTodos").with(csrf())).andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/api/v1/todo/rebuildSearchIndex").with(csrf())).andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/api/v1/user/getUsers")).andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/api/v1/user/getUsers").with(user("someone").roles("USER"))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/user/getUsers").with(user("admin").roles("ADMIN"))).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/todo/getTodos")).andExpect(status().isOk());
+    }
+}
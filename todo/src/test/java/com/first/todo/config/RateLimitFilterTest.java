@@ -0,0 +1,152 @@
+package com.first.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry registry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setDefaultLimit(new RateLimitProperties.Limit(10, 2));
+        properties.setGlobal(new RateLimitProperties.Limit(1000, 1000));
+        properties.getRoutes().put("/api/v1/todo/createTodo", new RateLimitProperties.Limit(0.5, 1));
+        registry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, new GcraRateLimiter(nanos::get), registry);
+    }
+
+    @Test
+    void burstIsAllowedThenRequestsAreThrottledUntilAPermitRefills() throws Exception {
+        assertEquals(200, call("/api/v1/todo/getTodos", "1").getStatus());
+        assertEquals(200, call("/api/v1/todo/getTodos", "1").getStatus());
+        MockHttpServletResponse throttled = call("/api/v1/todo/getTodos", "1");
+        assertEquals(429, throttled.getStatus());
+        assertEquals("1", throttled.getHeader("Retry-After"));
+
+        // another client has its own bucket
+        assertEquals(200, call("/api/v1/todo/getTodos", "2").getStatus());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(200, call("/api/v1/todo/getTodos", "1").getStatus());
+        assertEquals(1, registry.counter("todo.rate-limit.throttled", "route", "default", "scope", "client").count());
+    }
+
+    @Test
+    void routesHaveTheirOwnLimits() throws Exception {
+        assertEquals(200, call("/api/v1/todo/createTodo", "1").getStatus());
+        MockHttpServletResponse throttled = call("/api/v1/todo/createTodo", "1");
+        assertEquals(429, throttled.getStatus());
+        assertEquals("2", throttled.getHeader("Retry-After"));
+        // the default route of the same client is untouched
+        assertEquals(200, call("/api/v1/todo/getTodos", "1").getStatus());
+    }
+
+    @Test
+    void globalLimitAppliesAcrossClients() throws Exception {
+        properties.setGlobal(new RateLimitProperties.Limit(1, 3));
+        for (int client = 0; client < 3; client++) {
+            assertEquals(200, call("/api/v1/todo/getTodos", String.valueOf(client)).getStatus());
+        }
+        assertEquals(429, call("/api/v1/todo/getTodos", "99").getStatus());
+        assertEquals(1, registry.counter("todo.rate-limit.throttled", "route", "default", "scope", "global").count());
+    }
+
+    @Test
+    void withoutAGlobalLimitOnlyClientLimitsApply() throws Exception {
+        properties.setGlobal(null);
+        for (int client = 0; client < 50; client++) {
+            assertEquals(200, call("/api/v1/todo/getTodos", String.valueOf(client)).getStatus());
+        }
+        assertEquals(0, registry.counter("todo.rate-limit.throttled", "route", "default", "scope", "global").count());
+    }
+
+    @Test
+    void aRejectionByTheGlobalLimitKeepsTheClientsPermit() throws Exception {
+        properties.setDefaultLimit(new RateLimitProperties.Limit(0.1, 2));
+        properties.setGlobal(new RateLimitProperties.Limit(1, 1));
+        assertEquals(200, call("/api/v1/todo/getTodos", "1").getStatus());
+        assertEquals(429, call("/api/v1/todo/getTodos", "2").getStatus());
+
+        // client 2 still has its full burst of 2, only the global limit refused it
+        for (int i = 0; i < 2; i++) {
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            assertEquals(200, call("/api/v1/todo/getTodos", "2").getStatus());
+        }
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(429, call("/api/v1/todo/getTodos", "2").getStatus());
+        assertEquals(1, registry.counter("todo.rate-limit.throttled", "route", "default", "scope", "client").count());
+    }
+
+    @Test
+    void theUserIdParameterDoesNotChooseTheBucket() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/todo/getTodos");
+            request.setRemoteAddr("10.0.0.1");
+            request.setParameter("userId", String.valueOf(i));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(429, call("/api/v1/todo/getTodos", null).getStatus());
+        // nor can a caller drain the bucket of the user it names
+        assertEquals(200, call("/api/v1/todo/getTodos", "1").getStatus());
+    }
+
+    @Test
+    void requestsOutsideTheApiAndOfAnonymousClientsAreKeyedByIp() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call("/actuator/health", null).getStatus());
+        }
+        assertEquals(200, call("/api/v1/todo/getTodos", null).getStatus());
+        assertEquals(200, call("/api/v1/todo/getTodos", null).getStatus());
+        assertEquals(429, call("/api/v1/todo/getTodos", null).getStatus());
+    }
+
+    @Test
+    void refilledBucketsAreEvicted() throws Exception {
+        GcraRateLimiter limiter = new GcraRateLimiter(nanos::get);
+        limiter.tryAcquire("a", new RateLimitProperties.Limit(10, 1));
+        limiter.evictIdle();
+        assertEquals(1, limiter.size());
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.evictIdle();
+        assertEquals(0, limiter.size());
+        assertTrue(limiter.tryAcquire("a", new RateLimitProperties.Limit(10, 1)) == 0);
+    }
+
+    // username null = anonymous request
+    private MockHttpServletResponse call(String path, String username) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr("10.0.0.1");
+        if (username != null) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,115 @@
+package com.first.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Two embedded databases stand in for the primary and the replica, each one answers with its own name.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> role()));
+        assertEquals("primary", readWrite.execute(status -> role()));
+        // no transaction at all, e.g. schema tooling
+        assertEquals("primary", role());
+    }
+
+    @Test
+    void recentWritersReadFromThePrimary() {
+        AtomicLong nanos = new AtomicLong();
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), nanos::get, false);
+        readYourWrites.recordTodoWrite(10L, 1L);
+
+        assertEquals("primary", readOnly.execute(status -> readYourWrites.readUser(1L, this::role)));
+        assertEquals("primary", readOnly.execute(status -> readYourWrites.readTodo(10L, this::role)));
+        assertEquals("replica", readOnly.execute(status -> readYourWrites.readUser(2L, this::role)));
+
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertEquals("replica", readOnly.execute(status -> readYourWrites.readUser(1L, this::role)));
+    }
+
+    @Test
+    void theWriteCookieSendsReadsOfOtherInstancesToThePrimary() {
+        ReadYourWrites writer = new ReadYourWrites(Duration.ofSeconds(5), Ticker.systemTicker(), true);
+        ReadYourWrites otherInstance = new ReadYourWrites(Duration.ofSeconds(5), Ticker.systemTicker(), true);
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        try {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), writeResponse));
+            writer.recordTodoWrite(10L, 1L);
+            writer.recordTodoWrite(11L, 1L);
+            assertEquals(1, writeResponse.getHeaders("Set-Cookie").size());
+
+            MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+            nextRequest.setCookies(writeResponse.getCookie(ReadYourWrites.COOKIE));
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(nextRequest, new MockHttpServletResponse()));
+            assertEquals("primary", readOnly.execute(status -> otherInstance.readUser(2L, this::role)));
+
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+            assertEquals("replica", readOnly.execute(status -> otherInstance.readUser(2L, this::role)));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private String role() {
+        return jdbcTemplate.queryForObject("select name from db_role", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("routing_" + name)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table db_role (name varchar(16))");
+        jdbcTemplate.update("insert into db_role values (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,115 @@
+package com.first.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.service.TodoService;
+
+/**
+ * Boots the prod profile: the flyway migrations build the schema (MySQL DDL, run on the embedded database
+ * in MySQL mode with the MySQL dialect), Hibernate validates the mapping against it, and beans are lazy
+ * except the scheduled jobs.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_prod;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+@ActiveProfiles("prod")
+class StartupProfileTest {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+    @Autowired
+    private ScheduledAnnotationBeanPostProcessor scheduling;
+    @Autowired
+    private TodoService todoService;
+
+    @Test
+    void migratedSchemaMatchesTheMappingAndOnlyScheduledBeansAreEager() {
+        assertEquals("4", flyway.info().current().getVersion().getVersion());
+        // the longest description the validation accepts fits the migrated column
+        String description = "d".repeat(500);
+        Long todoId = todoService.createTodo(new TodoRequestDto("migrated", description, TodoStatus.PENDING), 90L).getId();
+        assertEquals("migrated", todoService.getTodoById(todoId).getTitle());
+        assertEquals(description, todoService.getTodoById(todoId).getDescription());
+
+        assertFalse(beanFactory.containsSingleton("todoController"), "controllers are created on the first request");
+        assertTrue(beanFactory.containsSingleton("todoArchiver"));
+        // every @Scheduled method of the application is scheduled although nothing has used its bean yet
+        // (10 methods, two of them on a "-" cron that is off by default)
+        List<String> tasks = scheduling.getScheduledTasks().stream()
+                .map(Object::toString)
+                .filter(task -> task.startsWith("com.first.todo."))
+                .toList();
+        assertEquals(8, tasks.size(), tasks.toString());
+        assertTrue(tasks.contains("com.first.todo.service.TodoArchiver.scheduledArchive"), tasks.toString());
+    }
+
+    @Test
+    void migrationsRunOnDatabasesBaselinedFromDdlAutoUpdate() {
+        String url = "jdbc:h2:mem:todo_dev;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").target("1").load().migrate();
+        // indexes as ddl-auto=update leaves them on a database created after the @Index on Todo changed
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("create index idx_todo_user_deleted_status_updated on todo (user_id, deleted, status, updated_at)");
+        jdbcTemplate.execute("drop index idx_todo_user_status_updated on todo");
+
+        Flyway dev = Flyway.configure().dataSource(url, "sa", "").load();
+        dev.migrate();
+
+        assertEquals("4", dev.info().current().getVersion().getVersion());
+    }
+
+    @Test
+    void databasesOfTheOriginalSchemaAreNotBaselined() {
+        String url = "jdbc:h2:mem:todo_original;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+        // the todo table as the application created it before the migration series
+        new JdbcTemplate(new DriverManagerDataSource(url, "sa", "")).execute("create table todo (id bigint auto_increment primary key,"
+                + " title varchar(255), description varchar(255), status varchar(20), user_id bigint,"
+                + " created_at datetime(6), updated_at datetime(6))");
+        Flyway original = Flyway.configure().dataSource(url, "sa", "").baselineOnMigrate(true).baselineVersion("1").load();
+
+        IllegalStateException refused = assertThrows(IllegalStateException.class,
+                () -> FlywayBaselineCheck.requireBaselineSchema(original));
+
+        assertTrue(refused.getMessage().contains("todo_seq"), refused.getMessage());
+        assertTrue(refused.getMessage().contains("todo.version"), refused.getMessage());
+        assertTrue(refused.getMessage().contains("without the prod profile"), refused.getMessage());
+        assertNull(original.info().current(), "nothing was baselined");
+    }
+
+    @Test
+    void summaryChargesNestedStepsToThemselves() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+        StartupStep outer = startup.start("spring.beans.instantiate").tag("beanName", "outer");
+        StartupStep inner = startup.start("spring.beans.instantiate").tag("beanName", "inner");
+        inner.end();
+        outer.end();
+
+        String summary = StartupReport.summary(startup.getBufferedTimeline(), 5);
+        assertTrue(summary.startsWith("By step:"), summary);
+        assertTrue(summary.contains("spring.beans.instantiate beanName=outer"), summary);
+        assertTrue(summary.contains("spring.beans.instantiate beanName=inner"), summary);
+    }
+}
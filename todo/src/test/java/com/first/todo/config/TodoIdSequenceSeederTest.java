@@ -0,0 +1,72 @@
+package com.first.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.model.Todo;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.service.TodoService;
+
+/**
+ * Todo ids on a database whose rows predate the sequence: with the MySQL dialect todo_seq is a table, as on MySQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_seq;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+class TodoIdSequenceSeederTest {
+
+    private static final long USER_ID = 501L;
+
+    @Autowired
+    private TodoIdSequenceSeeder seeder;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void todosCreatedAfterSeedingSkipExistingIds() {
+        // ids the sequence has not handed out yet, like IDENTITY ids written before it existed
+        long next = nextVal();
+        List<Long> existing = List.of(next, next + 120);
+        existing.forEach(id -> jdbcTemplate.update(
+                "insert into todo (id, title, status, user_id, deleted, version) values (?, 'existing', 'PENDING', ?, false, 0)",
+                id, USER_ID));
+        long archived = next + 200;
+        jdbcTemplate.update("insert into todo_archive (id, title, status, user_id, version, archived_at)"
+                + " values (?, 'archived', 'COMPLETED', ?, 0, current_timestamp)", archived, USER_ID);
+
+        assertEquals(1, seeder.seed());
+        assertEquals(archived + Todo.ID_ALLOCATION_SIZE, nextVal());
+
+        // past the ids allocated before the seeding, into blocks read after it
+        Set<Long> created = new HashSet<>();
+        for (int i = 0; i < 2 * Todo.ID_ALLOCATION_SIZE; i++) {
+            created.add(todoService.createTodo(new TodoRequestDto("created " + i, null, TodoStatus.PENDING), USER_ID).getId());
+        }
+        assertEquals(2 * Todo.ID_ALLOCATION_SIZE, created.size());
+        assertFalse(created.contains(next) || created.contains(next + 120) || created.contains(archived), created.toString());
+        assertTrue(created.stream().anyMatch(id -> id > archived), created.toString());
+
+        // a later start never moves the sequence back
+        long afterCreates = nextVal();
+        seeder.seed();
+        assertEquals(afterCreates, nextVal());
+    }
+
+    private long nextVal() {
+        return jdbcTemplate.queryForObject("select next_val from todo_seq", Long.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.first.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadsCheckTest {
+
+    @Test
+    void onlyTheVirtualProfileOnAnOldRuntimeIsReported() {
+        assertTrue(new VirtualThreadsCheck(true, 17).isIgnored());
+        assertFalse(new VirtualThreadsCheck(true, 21).isIgnored());
+        assertFalse(new VirtualThreadsCheck(false, 17).isIgnored());
+    }
+}
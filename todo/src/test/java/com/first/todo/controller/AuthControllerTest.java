@@ -0,0 +1,136 @@
+package com.first.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.first.todo.dto.LoginRequestDto;
+import com.first.todo.dto.RefreshTokenRequestDto;
+import com.first.todo.dto.TokenResponseDto;
+import com.first.todo.dto.UserRequestDto;
+import com.first.todo.model.Role;
+import com.first.todo.service.UserService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeAll
+    void registerUser() {
+        userService.registerUser(new UserRequestDto("jwt-user", "jwt-user@example.com", "secret1", Role.USER)).join();
+    }
+
+    @Test
+    void apiNeedsAnAccessTokenFromLogin() throws Exception {
+        mockMvc.perform(get("/api/v1/todo/getTodos")).andExpect(status().isUnauthorized());
+
+        TokenResponseDto tokens = login("jwt-user", "secret1");
+        mockMvc.perform(get("/api/v1/todo/getTodos").header("Authorization", "Bearer " + tokens.getAccessToken()))
+                .andExpect(status().isOk());
+        // a refresh token is not an access token
+        mockMvc.perform(get("/api/v1/todo/getTodos").header("Authorization", "Bearer " + tokens.getRefreshToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void wrongPasswordIsRejected() throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDto("jwt-user", "wrong1"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshTokenIssuesANewPair() throws Exception {
+        TokenResponseDto tokens = login("jwt-user", "secret1");
+
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequestDto(tokens.getRefreshToken()))))
+                .andExpect(status().isOk())
+                .andReturn();
+        TokenResponseDto refreshed = objectMapper.readValue(result.getResponse().getContentAsString(), TokenResponseDto.class);
+        assertNotEquals(tokens.getRefreshToken(), refreshed.getRefreshToken());
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequestDto(tokens.getAccessToken()))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void usersWithoutChangeTimestampsCanRefresh() throws Exception {
+        userService.registerUser(new UserRequestDto("legacy-user", "legacy-user@example.com", "secret1", Role.USER)).join();
+        TokenResponseDto tokens = login("legacy-user", "secret1");
+        jdbcTemplate.update("update user set updated_at = null, created_at = null where user_name = ?", "legacy-user");
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequestDto(tokens.getRefreshToken()))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void loginsSeeUsersAndPasswordsWrittenByOtherInstances() throws Exception {
+        // looked up once while unknown, as a bot probing the name would
+        loginStatus("remote-user", "secret1", 401);
+        // rows written by another instance: neither the name filter nor the user cache of this one hear about them
+        jdbcTemplate.update("insert into user (user_name, email, password, role, created_at, updated_at)"
+                + " values (?, ?, ?, 'USER', current_timestamp, current_timestamp)",
+                "remote-user", "remote-user@example.com", passwordEncoder.encode("secret1"));
+        loginStatus("remote-user", "secret1", 200);
+
+        jdbcTemplate.update("update user set password = ? where user_name = ?", passwordEncoder.encode("secret2"), "remote-user");
+        loginStatus("remote-user", "secret1", 401);
+        loginStatus("remote-user", "secret2", 200);
+    }
+
+    private void loginStatus(String username, String password, int status) throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDto(username, password))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().is(status));
+    }
+
+    private TokenResponseDto login(String username, String password) throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDto(username, password))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk()).andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), TokenResponseDto.class);
+    }
+}
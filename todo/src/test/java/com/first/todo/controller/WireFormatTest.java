@@ -0,0 +1,132 @@
+package com.first.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.UserRequestDto;
+import com.first.todo.model.Role;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.service.JwtTokenService;
+import com.first.todo.service.TodoService;
+import com.first.todo.service.UserService;
+
+/**
+ * Runs against the embedded Tomcat, where response compression happens.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_wire;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WireFormatTest {
+
+    private static final TypeReference<List<TodoResponseDto>> TODO_LIST = new TypeReference<>() { };
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JwtTokenService jwtTokenService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Long userId;
+    private String token;
+
+    @BeforeAll
+    void createTodos() {
+        userId = userService.registerUser(new UserRequestDto("wire-user", "wire-user@example.com", "secret1", Role.USER)).join().getId();
+        token = jwtTokenService.login("wire-user", "secret1").join().getAccessToken();
+        for (int i = 0; i < 100; i++) {
+            todoService.createTodo(new TodoRequestDto("Todo number " + i, "Description of todo number " + i, TodoStatus.PENDING), userId);
+        }
+    }
+
+    @Test
+    void largeJsonListsAreGzippedWhenTheClientAcceptsIt() throws Exception {
+        HttpResponse<byte[]> plain = get("application/json", null);
+        HttpResponse<byte[]> gzipped = get("application/json", "gzip");
+
+        assertNull(plain.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(gzipped.body())).readAllBytes();
+        assertEquals(100, objectMapper.readValue(json, TODO_LIST).size());
+        assertTrue(gzipped.body().length * 4 < plain.body().length, "gzip should shrink the list at least 4x");
+        // inherited User fields are not sent
+        assertFalse(new String(plain.body()).contains("password"));
+    }
+
+    @Test
+    void smileIsServedOnRequestAndJsonStaysTheDefault() throws Exception {
+        HttpResponse<byte[]> json = get("application/json", null);
+        HttpResponse<byte[]> smile = get("application/x-jackson-smile", null);
+
+        assertTrue(get("*/*", null).headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElse(null));
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+        assertEquals(objectMapper.readValue(json.body(), TODO_LIST), smileMapper.readValue(smile.body(), TODO_LIST));
+        assertTrue(smile.body().length < json.body().length);
+    }
+
+    @Test
+    void ndjsonUploadIsImportedAndExportedAsCsv() throws Exception {
+        long importUserId = userId + 1000;
+        String ndjson = "{\"title\":\"Imported one\"}\n{\"title\":\"Imported two\",\"status\":\"COMPLETED\"}\n";
+        HttpRequest upload = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/todo/importTodos?userId=" + importUserId))
+                .header("Content-Type", "application/x-ndjson")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson))
+                .build();
+        HttpResponse<String> imported = client.send(upload, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, imported.statusCode(), imported.body());
+        assertEquals(2, objectMapper.readTree(imported.body()).get("rowsImported").asInt());
+
+        HttpRequest export = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/todo/exportTodos?format=csv&userId=" + importUserId))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        HttpResponse<String> csv = client.send(export, HttpResponse.BodyHandlers.ofString());
+        assertEquals("text/csv", csv.headers().firstValue("Content-Type").orElse(null));
+        List<String> lines = csv.body().lines().toList();
+        assertEquals("id,title,description,status,userId,createdAt,updatedAt,version", lines.get(0));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains(",Imported two,,COMPLETED," + importUserId + ","), lines.get(2));
+    }
+
+    private HttpResponse<byte[]> get(String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/user/getTodosByUserId?userId=" + userId))
+                .header("Accept", accept)
+                .header("Authorization", "Bearer " + token);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+package com.first.todo.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.dto.TodoBatchOperationDto;
+import com.first.todo.dto.TodoBatchOperationType;
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.service.TodoService;
+
+@SpringBootTest
+class TodoEventsTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoEventBus eventBus;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void changesArePublishedToTheSubscribersOfTheOwner() throws InterruptedException {
+        BlockingQueue<TodoChangedEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<TodoChangedEvent> otherUser = new LinkedBlockingQueue<>();
+        TodoEventBus.Subscription subscription = eventBus.subscribe(201L, events::add);
+        eventBus.subscribe(202L, otherUser::add);
+
+        Long todoId = todoService.createTodo(new TodoRequestDto("pushed", null, TodoStatus.PENDING), 201L).getId();
+        todoService.updateTodo(todoId, new TodoRequestDto("pushed again", null, TodoStatus.COMPLETED));
+        todoService.deleteTodo(todoId);
+
+        assertEquals(TodoChangeType.CREATED, events.poll(5, TimeUnit.SECONDS).getType());
+        TodoChangedEvent updated = events.poll(5, TimeUnit.SECONDS);
+        assertEquals(TodoChangeType.UPDATED, updated.getType());
+        assertEquals("pushed again", updated.getTodo().getTitle());
+        TodoChangedEvent deleted = events.poll(5, TimeUnit.SECONDS);
+        assertEquals(TodoChangeType.DELETED, deleted.getType());
+        assertEquals(todoId, deleted.getTodoId());
+        assertNull(otherUser.poll(200, TimeUnit.MILLISECONDS));
+
+        subscription.cancel();
+        todoService.createTodo(new TodoRequestDto("unheard", null, TodoStatus.PENDING), 201L);
+        assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void rolledBackChangesAreNotPublished() throws InterruptedException {
+        BlockingQueue<TodoChangedEvent> events = new LinkedBlockingQueue<>();
+        eventBus.subscribe(203L, events::add);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            todoService.applyBatch(List.of(new TodoBatchOperationDto(TodoBatchOperationType.CREATE, null, 203L,
+                    "rolled back", null, TodoStatus.PENDING)));
+            status.setRollbackOnly();
+        });
+
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    }
+}
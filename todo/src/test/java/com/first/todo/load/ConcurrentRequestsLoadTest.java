@@ -0,0 +1,91 @@
+package com.first.todo.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives a running instance with a fixed number of concurrent clients and reports throughput and p99.
+ * Run it once against the default profile and once against the "virtual" profile (on a Java 21+ runtime)
+ * with the same settings:
+ *
+ * mvn test -Pload-test -Dload.baseUrl=http://localhost:8080 -Dload.concurrency=400
+ *
+ * Start the instance with --todo.rate-limit.enabled=false, or the load is throttled with 429s, and pass
+ * an access token from /api/v1/auth/login as -Dload.token=...
+ */
+@Tag("load")
+class ConcurrentRequestsLoadTest {
+
+    private final String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private final String path = System.getProperty("load.path", "/api/v1/todo/getTodos?size=50");
+    private final int concurrency = Integer.getInteger("load.concurrency", 400);
+    private final int requestsPerClient = Integer.getInteger("load.requestsPerClient", 50);
+    private final String token = System.getProperty("load.token", "");
+
+    @Test
+    void concurrentReads() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (!token.isEmpty()) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < requestsPerClient; i++) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - sent);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        double seconds = elapsed / 1_000_000_000.0;
+        System.out.printf("concurrency=%d requests=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms%n",
+                concurrency, sorted.size(), errors.get(), sorted.size() / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99));
+        assertTrue(errors.get() < sorted.size(), "every request failed, is the service running at " + baseUrl + "?");
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.first.todo.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Opens many idle event streams against a running instance, then makes one change per user and
+ * measures how long it takes until every subscriber has received it:
+ *
+ * mvn test -Pload-test -Dtest=TodoEventStreamLoadTest -Dload.baseUrl=http://localhost:8080 -Dload.subscribers=10000
+ *
+ * Start the instance with --todo.rate-limit.enabled=false, or the load is throttled with 429s, and pass
+ * an access token from /api/v1/auth/login as -Dload.token=...
+ * Raise the open file limit of both processes (ulimit -n) before going past a few thousand streams.
+ */
+@Tag("load")
+class TodoEventStreamLoadTest {
+
+    private final String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private final int subscribers = Integer.getInteger("load.subscribers", 2000);
+    private final int users = Integer.getInteger("load.users", 100);
+    private final String token = System.getProperty("load.token", "");
+
+    @Test
+    void manyConcurrentSubscribers() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        AtomicInteger connected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(subscribers);
+        List<CompletableFuture<HttpResponse<Stream<String>>>> streams = new ArrayList<>();
+        ExecutorService readers = Executors.newCachedThreadPool();
+
+        for (int i = 0; i < subscribers; i++) {
+            long userId = 1_000_000L + i % users;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/todo/events?userId=" + userId))
+                    .header("Accept", "text/event-stream")
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            streams.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                            return;
+                        }
+                        connected.incrementAndGet();
+                        // read on a separate thread, the lines stream blocks until the server pushes
+                        readers.execute(() -> response.body()
+                                .filter(line -> line.startsWith("event:"))
+                                .findFirst()
+                                .ifPresent(line -> delivered.countDown()));
+                    }));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (connected.get() + failed.get() < subscribers && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        System.out.printf("subscribers=%d connected=%d failed=%d%n", subscribers, connected.get(), failed.get());
+
+        long start = System.nanoTime();
+        for (int u = 0; u < users; u++) {
+            String body = "{\"operations\":[{\"type\":\"CREATE\",\"userId\":" + (1_000_000L + u)
+                    + ",\"title\":\"pushed\",\"status\":\"PENDING\"}]}";
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/todo/batch"))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+        boolean all = delivered.await(60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("delivered=%d of %d in %.2f s%n", subscribers - delivered.getCount(), subscribers, seconds);
+
+        streams.forEach(stream -> stream.cancel(true));
+        readers.shutdownNow();
+        assertTrue(connected.get() > 0, "no stream connected, is the service running at " + baseUrl + "?");
+        assertTrue(all || delivered.getCount() <= failed.get(), delivered.getCount() + " subscribers missed the event");
+    }
+}
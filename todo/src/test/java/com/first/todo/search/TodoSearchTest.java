@@ -0,0 +1,78 @@
+package com.first.todo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.service.TodoService;
+
+@SpringBootTest
+class TodoSearchTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoSearchIndex searchIndex;
+
+    @Test
+    void matchesWordsAndPrefixesOfTheUsersOwnTodos() {
+        Long groceries = create(301L, "Buy groceries", "milk and eggs");
+        Long call = create(301L, "Call mom", "ask about the groceries");
+        Long otherUser = create(302L, "groceries list", null);
+        indexed();
+
+        // title matches rank above description matches
+        assertEquals(List.of(groceries, call), ids(301L, "groceries"));
+        assertEquals(List.of(groceries, call), ids(301L, "GROC"));
+        assertEquals(List.of(groceries), ids(301L, "milk gro"));
+        assertEquals(List.of(otherUser), ids(302L, "groceries"));
+        assertTrue(ids(301L, "bread").isEmpty());
+        assertTrue(ids(301L, "  ").isEmpty());
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        Long todoId = create(303L, "Renew passport", null);
+        indexed();
+        assertEquals(List.of(todoId), ids(303L, "passport"));
+
+        todoService.updateTodo(todoId, new TodoRequestDto("Renew driving licence", null, TodoStatus.IN_PROGRESS));
+        indexed();
+        assertTrue(ids(303L, "passport").isEmpty());
+        assertEquals(List.of(todoId), ids(303L, "licence"));
+
+        todoService.deleteTodo(todoId);
+        indexed();
+        assertTrue(ids(303L, "licence").isEmpty());
+    }
+
+    @Test
+    void rebuildIndexesEveryTodoFromTheDatabase() {
+        Long todoId = create(304L, "Water the plants", null);
+        indexed();
+
+        assertTrue(searchIndex.rebuild().join() >= 1);
+        assertEquals(List.of(todoId), ids(304L, "plants"));
+    }
+
+    private Long create(Long userId, String title, String description) {
+        return todoService.createTodo(new TodoRequestDto(title, description, TodoStatus.PENDING), userId).getId();
+    }
+
+    private List<Long> ids(Long userId, String text) {
+        return todoService.searchTodos(userId, text, null).stream().map(TodoResponseDto::getId).toList();
+    }
+
+    // index writes run in order on one thread, so once this no-op is done every earlier change is searchable
+    private void indexed() {
+        searchIndex.remove(Long.MIN_VALUE).join();
+    }
+}
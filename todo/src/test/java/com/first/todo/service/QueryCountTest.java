@@ -0,0 +1,253 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.first.todo.dto.TodoBatchOperationDto;
+import com.first.todo.dto.TodoBatchOperationType;
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoStatsDto;
+import com.first.todo.dto.UserRequestDto;
+import com.first.todo.dto.UserResponseDto;
+import com.first.todo.dto.UserSummaryDto;
+import com.first.todo.dto.UserWithTodosDto;
+import com.first.todo.model.Role;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoRepo;
+import com.first.todo.repository.UserRepo;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pins the number of SQL statements each endpoint's service call sends, so extra round trips show up as failures.
+ */
+@SpringBootTest
+class QueryCountTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TodoRepo todoRepo;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        todoRepo.deleteAllInBatch();
+        userRepo.deleteAllInBatch();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void registerUserIsASingleInsert() {
+        assertEquals(1, statementsFor(() -> register("alice", "alice@example.com")));
+    }
+
+    @Test
+    void duplicateRegistrationIsRejectedByTheConstraints() {
+        register("alice", "alice@example.com");
+
+        RuntimeException username = assertThrows(RuntimeException.class, () -> register("alice", "other@example.com"));
+        assertEquals("Username already exists", username.getMessage());
+        RuntimeException email = assertThrows(RuntimeException.class, () -> register("bob", "alice@example.com"));
+        assertEquals("Email already exists", email.getMessage());
+        assertEquals(1, statementsFor(() -> assertThrows(RuntimeException.class, () -> register("alice", "x@example.com"))));
+    }
+
+    @Test
+    void userLookupsAreCachedAndFreeNamesSkipTheDatabase() {
+        assertEquals(0, statementsFor(() -> assertFalse(userService.userExistsByUsername("never-registered"))));
+        assertEquals(0, statementsFor(() -> assertFalse(userService.userExistsByEmail("never@example.com"))));
+
+        // misses are cached as well, until a write of that name
+        assertEquals(1, statementsFor(() -> assertThrows(RuntimeException.class, () -> userService.getUserByUsername("carol"))));
+        assertEquals(0, statementsFor(() -> assertThrows(RuntimeException.class, () -> userService.getUserByUsername("carol"))));
+        Long carol = register("carol", "carol@example.com").getId();
+
+        assertEquals(1, statementsFor(() -> assertEquals("carol@example.com", userService.getUserByUsername("carol").getEmail())));
+        assertEquals(0, statementsFor(() -> assertTrue(userService.userExistsByUsername("carol"))));
+        assertEquals(1, statementsFor(() -> assertTrue(userService.userExistsByEmail("carol@example.com"))));
+
+        userService.deleteUser(carol);
+        assertFalse(userService.userExistsByUsername("carol"));
+    }
+
+    @Test
+    void userWithTodosIsOneQueryAndThePagedVariantTwo() {
+        Long userId = register("dave", "dave@example.com").getId();
+        for (int i = 0; i < 5; i++) {
+            createTodo(userId, "todo " + i);
+        }
+        todoService.deleteTodo(createTodo(userId, "gone").getId());
+
+        UserWithTodosDto[] result = new UserWithTodosDto[1];
+        assertEquals(1, statementsFor(() -> result[0] = userService.getUserWithTodos(userId)));
+        assertEquals("dave", result[0].getUser().getUserName());
+        assertEquals(5, result[0].getTodos().size());
+        assertEquals("todo 0", result[0].getTodos().get(0).getTitle());
+
+        assertEquals(2, statementsFor(() -> result[0] = userService.getUserWithTodosPage(userId, null, 3)));
+        assertEquals(3, result[0].getTodos().size());
+        assertTrue(result[0].isHasMore());
+        Long after = result[0].getNextCursor();
+        assertEquals(2, statementsFor(() -> result[0] = userService.getUserWithTodosPage(userId, after, 3)));
+        assertEquals(2, result[0].getTodos().size());
+        assertFalse(result[0].isHasMore());
+    }
+
+    @Test
+    void userListingCountsTodosInOneAggregateQuery() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Long userId = register("user" + i, "user" + i + "@example.com").getId();
+            userIds.add(userId);
+            for (int j = 0; j < i; j++) {
+                createTodo(userId, "todo " + j);
+            }
+        }
+
+        List<UserSummaryDto> page = new ArrayList<>();
+        assertEquals(1, statementsFor(() -> page.addAll(userService.getUserSummaries(null, 100))));
+        assertEquals(10, page.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(userIds.get(i), page.get(i).getId());
+            assertEquals(i, page.get(i).getTodoCount());
+        }
+        assertEquals(List.of(userIds.get(8), userIds.get(9)),
+                userService.getUserSummaries(userIds.get(7), 5).stream().map(UserSummaryDto::getId).toList());
+    }
+
+    @Test
+    void deleteUserDeletesUserAndTodosWithBulkStatements() {
+        Long userId = register("alice", "alice@example.com").getId();
+        createTodo(userId, "first");
+        createTodo(userId, "second");
+
+        // delete user, delete archived todos, select todo ids for cache eviction, delete todos
+        assertEquals(4, statementsFor(() -> userService.deleteUser(userId)));
+        assertFalse(userRepo.existsById(userId));
+        assertTrue(todoRepo.findIdsByUserId(userId).isEmpty());
+
+        Long lonely = register("bob", "bob@example.com").getId();
+        assertEquals(3, statementsFor(() -> userService.deleteUser(lonely)));
+        assertEquals(1, statementsFor(() -> assertThrows(RuntimeException.class, () -> userService.deleteUser(lonely))));
+    }
+
+    @Test
+    void deleteTodoIsASingleDeleteWhenTheOwnerIsCached() {
+        Long todoId = createTodo(1L, "cached").getId();
+        todoService.getTodoById(todoId);
+
+        assertEquals(1, statementsFor(() -> todoService.deleteTodo(todoId)));
+        assertFalse(todoRepo.existsById(todoId));
+    }
+
+    @Test
+    void deleteTodoLooksUpTheOwnerOnlyWhenNotCached() {
+        Long todoId = createTodo(1L, "uncached").getId();
+
+        assertEquals(2, statementsFor(() -> todoService.deleteTodo(todoId)));
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> todoService.deleteTodo(todoId));
+        assertEquals("Todo not found", missing.getMessage());
+    }
+
+    @Test
+    void readsAreOneQueryAndThenServedFromCache() {
+        Long todoId = createTodo(2L, "read me").getId();
+
+        assertEquals(1, statementsFor(() -> todoService.getTodoById(todoId)));
+        assertEquals(0, statementsFor(() -> todoService.getTodoById(todoId)));
+        assertEquals(1, statementsFor(() -> todoService.getTodosByUserId(2L)));
+        assertEquals(0, statementsFor(() -> todoService.getTodosByUserId(2L)));
+    }
+
+    @Test
+    void listETagIsOneAggregateQueryAndFreeOnceCached() {
+        createTodo(5L, "tagged");
+
+        String[] eTag = new String[1];
+        assertEquals(1, statementsFor(() -> eTag[0] = todoService.getTodosETag(5L)));
+        List<TodoResponseDto> todos = todoService.getTodosByUserId(5L);
+        assertEquals(0, statementsFor(() -> assertEquals(eTag[0], todoService.getTodosETag(5L))));
+        assertEquals(eTag[0], TodoETags.of(5L, todos));
+    }
+
+    @Test
+    void statsAreOneGroupByQuery() {
+        createTodo(6L, "pending");
+        todoService.createTodo(new TodoRequestDto("done", null, TodoStatus.COMPLETED), 6L);
+
+        TodoStatsDto[] stats = new TodoStatsDto[1];
+        assertEquals(1, statementsFor(() -> stats[0] = todoService.getTodoStats(6L)));
+        assertEquals(2, stats[0].getTotal());
+        assertEquals(1L, stats[0].getByStatus().get(TodoStatus.COMPLETED));
+        assertEquals(0.5, stats[0].getCompletionRate());
+    }
+
+    @Test
+    void updateTodoIsOneSelectAndOneUpdate() {
+        Long todoId = createTodo(3L, "before").getId();
+
+        assertEquals(2, statementsFor(() -> todoService.updateTodo(todoId, new TodoRequestDto("after", null, TodoStatus.COMPLETED))));
+    }
+
+    @Test
+    void statusUpdateIsOneUpdateAndOneSelect() {
+        Long todoId = createTodo(3L, "dragged").getId();
+
+        assertEquals(2, statementsFor(() -> todoService.updateTodoStatus(todoId, TodoStatus.IN_PROGRESS)));
+        assertEquals(TodoStatus.IN_PROGRESS, todoService.getTodoById(todoId).getStatus());
+    }
+
+    @Test
+    void batchCreatesAreSentAsJdbcBatches() {
+        List<TodoBatchOperationDto> operations = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            operations.add(new TodoBatchOperationDto(TodoBatchOperationType.CREATE, null, 4L, "todo " + i, null, TodoStatus.PENDING));
+        }
+
+        long statements = statementsFor(() -> todoService.applyBatch(operations));
+
+        assertEquals(200, todoRepo.findIdsByUserId(4L).size());
+        // a handful of sequence calls and batched inserts instead of 200 round trips
+        assertTrue(statements <= 10, "expected batched inserts, got " + statements + " statements");
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserResponseDto register(String userName, String email) {
+        try {
+            return userService.registerUser(new UserRequestDto(userName, email, "secret1", Role.USER)).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private TodoResponseDto createTodo(Long userId, String title) {
+        return todoService.createTodo(new TodoRequestDto(title, null, TodoStatus.PENDING), userId);
+    }
+}
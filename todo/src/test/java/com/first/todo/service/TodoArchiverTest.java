@@ -0,0 +1,195 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.first.todo.dto.TodoPageResponseDto;
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoStatsDto;
+import com.first.todo.dto.TodoSyncResponseDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.ArchivedTodoRepo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Archival of long-completed todos in chunks (two rows per chunk in the test configuration), and reads
+ * with and without the archived ones.
+ */
+@SpringBootTest
+class TodoArchiverTest {
+
+    private static final long USER_ID = 80L;
+
+    @Autowired
+    private TodoArchiver todoArchiver;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private ArchivedTodoRepo archivedTodoRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private TombstonePurgeJob purgeJob;
+
+    @BeforeEach
+    void setUp() {
+        // tombstones of other tests too, the table size is checked
+        jdbcTemplate.update("delete from todo");
+        archivedTodoRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void onlyLongCompletedTodosAreMoved() {
+        List<Long> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            old.add(completedDaysAgo("old " + i, 100));
+        }
+        Long recent = completedDaysAgo("recent", 10);
+        Long open = todoService.createTodo(new TodoRequestDto("open", null, TodoStatus.PENDING), USER_ID).getId();
+        Long deleted = completedDaysAgo("deleted", 100);
+        todoService.deleteTodo(deleted);
+        todoService.getTodosByUserId(USER_ID);
+        double before = registry.counter("todo.archive.rows").count();
+
+        assertEquals(5, todoArchiver.archive());
+
+        assertEquals(5, registry.counter("todo.archive.rows").count() - before);
+        // recent, open, the deleted todo's tombstone and those of the archived ones
+        assertEquals(8.0, registry.get("todo.archive.table.rows").tag("table", "todo").gauge().value());
+        assertEquals(5.0, registry.get("todo.archive.table.rows").tag("table", "todo_archive").gauge().value());
+        // the cached list was evicted, the default reads no longer see archived todos
+        assertEquals(List.of(recent, open), ids(todoService.getTodosByUserId(USER_ID)));
+        assertEquals(2, todoService.getTodoStats(USER_ID).getTotal());
+        TodoStatsDto withArchived = todoService.getTodoStats(USER_ID, true);
+        assertEquals(7, withArchived.getTotal());
+        assertEquals(6L, withArchived.getByStatus().get(TodoStatus.COMPLETED));
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> todoService.getTodoById(old.get(0)));
+        assertEquals("Todo not found", missing.getMessage());
+
+        TodoResponseDto archived = todoService.getTodoById(old.get(0), true);
+        assertEquals("old 0", archived.getTitle());
+        assertEquals(TodoStatus.COMPLETED, archived.getStatus());
+        assertEquals(List.of(old.get(0), old.get(1), old.get(2), old.get(3), old.get(4), recent, open),
+                ids(todoService.getTodosByUserId(USER_ID, true)));
+        // the deleted todo stays a tombstone in the hot table for sync
+        assertTrue(archivedTodoRepo.findResponseById(deleted).isEmpty());
+
+        assertEquals(0, todoArchiver.archive());
+    }
+
+    @Test
+    void syncListsArchivedTodosApartFromDeletedOnes() {
+        Long old = completedDaysAgo("old", 100);
+        Long removed = todoService.createTodo(new TodoRequestDto("removed", null, TodoStatus.PENDING), USER_ID).getId();
+        TodoSyncResponseDto initial = todoService.syncTodos(USER_ID, null, null);
+        assertEquals(List.of(old, removed), ids(initial.getChanged()));
+
+        todoArchiver.archive();
+        todoService.deleteTodo(removed);
+
+        TodoSyncResponseDto delta = todoService.syncTodos(USER_ID, initial.getNextToken(), null);
+        assertTrue(delta.getChanged().isEmpty());
+        assertEquals(List.of(old), delta.getArchived());
+        assertEquals(List.of(removed), delta.getDeleted());
+        // still there for reads asking for archived todos, the tombstone left in todo keeps no text
+        assertEquals("old", todoService.getTodoById(old, true).getTitle());
+        assertEquals("", jdbcTemplate.queryForObject("select title from todo where id = ?", String.class, old));
+    }
+
+    @Test
+    void purgeRemovesArchivalTombstonesAndKeepsTheArchive() {
+        for (int i = 0; i < 3; i++) {
+            completedDaysAgo("old " + i, 100);
+        }
+        todoArchiver.archive();
+
+        // two rows per chunk in the test configuration
+        assertEquals(3, purgeJob.purgeDeletedBefore(LocalDateTime.now().plusSeconds(1)));
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from todo", Integer.class));
+        assertEquals(3, archivedTodoRepo.count());
+    }
+
+    @Test
+    void anEditAfterCompletionRestartsTheWait() {
+        Long edited = completedDaysAgo("completed long ago", 100);
+        todoService.updateTodo(edited, new TodoRequestDto("edited today", null, TodoStatus.COMPLETED));
+
+        // updated_at stands in for the completion time
+        assertEquals(0, todoArchiver.archive());
+        assertEquals("edited today", todoService.getTodoById(edited).getTitle());
+    }
+
+    @Test
+    void scheduledRunsLeaveTheSchedulerThread() throws InterruptedException {
+        completedDaysAgo("old", 100);
+
+        // returns at once, the run goes on the archiver's own thread
+        todoArchiver.scheduledArchive();
+
+        for (int i = 0; i < 100 && archivedTodoRepo.count() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, archivedTodoRepo.count());
+    }
+
+    @Test
+    void pagesRunAcrossBothTables() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(i % 2 == 0 ? completedDaysAgo("old " + i, 100)
+                    : todoService.createTodo(new TodoRequestDto("open " + i, null, TodoStatus.PENDING), USER_ID).getId());
+        }
+        todoArchiver.archive();
+
+        List<Long> seen = new ArrayList<>();
+        Long after = null;
+        do {
+            TodoPageResponseDto page = todoService.getTodosPage(after, 3, null, USER_ID, true);
+            seen.addAll(ids(page.getTodos()));
+            after = page.getNextCursor();
+        } while (after != null);
+        assertEquals(expected, seen);
+
+        TodoPageResponseDto completed = todoService.getTodosPage(null, 10, TodoStatus.COMPLETED, USER_ID, true);
+        assertEquals(4, completed.getTodos().size());
+        assertFalse(completed.isHasMore());
+        assertTrue(todoService.getTodosPage(null, 10, TodoStatus.COMPLETED, USER_ID).getTodos().isEmpty());
+    }
+
+    @Test
+    void deletingTheUsersTodosEmptiesTheArchiveToo() {
+        completedDaysAgo("old", 100);
+        todoArchiver.archive();
+
+        todoService.deleteTodosOfUser(USER_ID);
+
+        assertTrue(todoService.getTodosByUserId(USER_ID, true).isEmpty());
+    }
+
+    private Long completedDaysAgo(String title, int days) {
+        Long id = todoService.createTodo(new TodoRequestDto(title, null, TodoStatus.COMPLETED), USER_ID).getId();
+        jdbcTemplate.update("update todo set updated_at = ? where id = ?", LocalDateTime.now().minusDays(days), id);
+        return id;
+    }
+
+    private static List<Long> ids(List<TodoResponseDto> todos) {
+        return todos.stream().map(TodoResponseDto::getId).toList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.model.TodoStatus;
+
+/**
+ * The todo caches against the database: a read that lands while an update is still uncommitted caches the old
+ * row, and the after-commit eviction of the transaction-aware cache manager has to clear it.
+ */
+@SpringBootTest
+class TodoCacheCommitTest {
+
+    private static final long USER_ID = 601L;
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void readsAfterTheCommitSeeTheUpdateEvenIfTheOldRowWasCachedMeanwhile() throws Exception {
+        Long id = todoService.createTodo(new TodoRequestDto("v0", null, TodoStatus.PENDING), USER_ID).getId();
+        assertEquals("v0", todoService.getTodoById(id).getTitle());
+        assertEquals("v0", todoService.getTodosByUserId(USER_ID).get(0).getTitle());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            todoService.updateTodo(id, new TodoRequestDto("v1", null, TodoStatus.COMPLETED));
+            // another request, outside this transaction, still reads the committed v0 and caches it again
+            String seenMeanwhile = CompletableFuture.supplyAsync(() -> todoService.getTodoById(id).getTitle()
+                            + "/" + todoService.getTodosByUserId(USER_ID).get(0).getTitle())
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            assertEquals("v0/v0", seenMeanwhile);
+        });
+
+        assertEquals("v1", todoService.getTodoById(id).getTitle());
+        assertEquals("v1", todoService.getTodosByUserId(USER_ID).get(0).getTitle());
+    }
+}
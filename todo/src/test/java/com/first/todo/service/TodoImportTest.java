@@ -0,0 +1,133 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.first.todo.dto.TodoImportJobDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.TodoImportStatus;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoRepo;
+
+@SpringBootTest
+class TodoImportTest {
+
+    private static final long USER_ID = 80L;
+
+    @Autowired
+    private TodoImporter todoImporter;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoRepo todoRepo;
+
+    @BeforeEach
+    void setUp() {
+        todoRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void csvImportSkipsInvalidRowsAndReadsItsOwnExport() throws IOException {
+        String csv = """
+                title,description,status,userId
+                Buy milk,,pending,
+                Call mom,"about the trip, and the car",IN_PROGRESS,81
+                x,too short,PENDING,
+                ,no title,PENDING,
+                Unknown,,SOMEDAY,
+                Done already,,completed,
+                """;
+
+        TodoImportJobDto job = todoImporter.importTodos(null, USER_ID, TodoCsv.MEDIA_TYPE, stream(csv));
+
+        assertEquals(TodoImportStatus.COMPLETED, job.getStatus());
+        assertEquals(6, job.getRowsRead());
+        assertEquals(3, job.getRowsImported());
+        assertEquals(3, job.getRowsRejected());
+        assertEquals("row 5: Unknown status SOMEDAY", job.getLastError());
+        List<TodoResponseDto> todos = todoService.getTodosByUserId(USER_ID);
+        assertEquals(List.of("Buy milk", "Done already"), todos.stream().map(TodoResponseDto::getTitle).toList());
+        assertEquals(TodoStatus.COMPLETED, todos.get(1).getStatus());
+        assertEquals("about the trip, and the car", todoService.getTodosByUserId(81L).get(0).getDescription());
+
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        todoService.exportTodosCsv(null, null, export);
+        todoRepo.deleteAllInBatch();
+        TodoImportJobDto again = todoImporter.importTodos(null, null, TodoCsv.MEDIA_TYPE, new ByteArrayInputStream(export.toByteArray()));
+        assertEquals(3, again.getRowsImported());
+        assertEquals(0, again.getRowsRejected());
+        assertEquals(2, todoService.getTodosByUserId(USER_ID).size());
+    }
+
+    @Test
+    void failedUploadResumesAfterTheLastCommittedChunk() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            ndjson.append("{\"title\":\"todo ").append(i).append("\",\"status\":\"PENDING\"}\n");
+        }
+        byte[] body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+        Long jobId = todoImporter.createImportJob(USER_ID).getId();
+
+        // the connection drops after about 1500 rows: the first chunk of 1000 is committed
+        assertThrows(IOException.class, () -> todoImporter.importTodos(jobId, null, MediaType.APPLICATION_NDJSON, dropAfter(body, body.length * 3 / 5)));
+        TodoImportJobDto failed = todoImporter.getImportJob(jobId);
+        assertEquals(TodoImportStatus.FAILED, failed.getStatus());
+        assertEquals(1000, failed.getRowsRead());
+        assertEquals(1000, todoRepo.findIdsByUserId(USER_ID).size());
+
+        TodoImportJobDto resumed = todoImporter.importTodos(jobId, null, MediaType.APPLICATION_NDJSON, new ByteArrayInputStream(body));
+        assertEquals(TodoImportStatus.COMPLETED, resumed.getStatus());
+        assertEquals(2500, resumed.getRowsImported());
+        List<TodoResponseDto> todos = todoService.getTodosByUserId(USER_ID);
+        assertEquals(2500, todos.size());
+        assertEquals(2500, todos.stream().map(TodoResponseDto::getTitle).distinct().count());
+
+        ResponseStatusException done = assertThrows(ResponseStatusException.class,
+                () -> todoImporter.importTodos(jobId, null, MediaType.APPLICATION_NDJSON, new ByteArrayInputStream(body)));
+        assertEquals(HttpStatus.CONFLICT, done.getStatusCode());
+    }
+
+    @Test
+    void malformedLineFailsTheJobWithItsRowNumber() {
+        String ndjson = "{\"title\":\"fine\"}\n{\"title\": broken}\n";
+
+        ResponseStatusException malformed = assertThrows(ResponseStatusException.class,
+                () -> todoImporter.importTodos(null, USER_ID, MediaType.APPLICATION_NDJSON, stream(ndjson)));
+        assertEquals(HttpStatus.BAD_REQUEST, malformed.getStatusCode());
+        assertTrue(malformed.getReason().startsWith("row 2: "), malformed.getReason());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream dropAfter(byte[] body, int bytes) {
+        return new FilterInputStream(new ByteArrayInputStream(body, 0, bytes)) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+    }
+}
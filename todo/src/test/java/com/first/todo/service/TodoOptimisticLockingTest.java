@@ -0,0 +1,172 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoRepo;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Version checks on todo updates, and a contention run counting lost updates with and without them.
+ * The run is small by default, raise it with -Dstress.threads=... -Dstress.increments=...
+ */
+@SpringBootTest
+class TodoOptimisticLockingTest {
+
+    private static final long USER_ID = 70L;
+
+    private final int threads = Integer.getInteger("stress.threads", 8);
+    private final int increments = Integer.getInteger("stress.increments", 25);
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoRepo todoRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        todoRepo.deleteAllInBatch();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void staleVersionsAreRejectedWithConflict() {
+        TodoResponseDto todo = create("count 0");
+        assertEquals(0L, todo.getVersion());
+
+        TodoResponseDto updated = todoService.updateTodo(todo.getId(), new TodoRequestDto("count 1", null, TodoStatus.PENDING), 0L);
+        assertEquals(1L, updated.getVersion());
+
+        assertConflict(() -> todoService.updateTodo(todo.getId(), new TodoRequestDto("lost", null, TodoStatus.PENDING), 0L));
+        assertConflict(() -> todoService.patchTodo(todo.getId(), new TodoRequestDto("lost", null, null), 0L));
+        assertConflict(() -> todoService.updateTodoStatus(todo.getId(), TodoStatus.COMPLETED, 0L));
+        assertEquals("count 1", todoService.getTodoById(todo.getId()).getTitle());
+
+        assertEquals(2L, todoService.updateTodoStatus(todo.getId(), TodoStatus.COMPLETED, 1L).getVersion());
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> todoService.updateTodoStatus(-1L, TodoStatus.COMPLETED, 0L));
+        assertEquals("Todo not found", missing.getMessage());
+    }
+
+    @Test
+    void patchOnlyChangesTheFieldsItCarries() {
+        TodoResponseDto todo = todoService.createTodo(new TodoRequestDto("title", "description", TodoStatus.PENDING), USER_ID);
+
+        TodoResponseDto[] patched = new TodoResponseDto[1];
+        assertEquals(2, statementsFor(() -> patched[0] = todoService.patchTodo(todo.getId(), new TodoRequestDto(null, null, TodoStatus.IN_PROGRESS), null)));
+        assertEquals("title", patched[0].getTitle());
+        assertEquals("description", patched[0].getDescription());
+        assertEquals(TodoStatus.IN_PROGRESS, patched[0].getStatus());
+        assertEquals(1L, patched[0].getVersion());
+
+        // nothing changed, nothing written
+        assertEquals(1, statementsFor(() -> patched[0] = todoService.patchTodo(todo.getId(), new TodoRequestDto(null, "description", null), 1L)));
+        assertEquals(1L, patched[0].getVersion());
+    }
+
+    @Test
+    void bulkUpdatesBumpTheVersion() {
+        TodoResponseDto todo = create("bulk");
+
+        assertEquals(1L, todoService.updateTodoStatus(todo.getId(), TodoStatus.COMPLETED).getVersion());
+        assertConflict(() -> todoService.updateTodo(todo.getId(), new TodoRequestDto("late", null, TodoStatus.PENDING), 0L));
+
+        todoService.deleteTodo(todo.getId());
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> todoService.updateTodo(todo.getId(), new TodoRequestDto("gone", null, TodoStatus.PENDING), 1L));
+        assertEquals("Todo not found", missing.getMessage());
+    }
+
+    @Test
+    void contendedIncrementsLoseNothingWithVersions() throws Exception {
+        Result versioned = incrementConcurrently(true);
+        assertEquals(0, versioned.lost(), versioned.toString());
+
+        // the same clients without a version: whatever they overwrote is gone (how much depends on timing)
+        Result blind = incrementConcurrently(false);
+        assertTrue(blind.lost() >= 0, blind.toString());
+    }
+
+    // every client reads the counter in the title and writes it back plus one, retrying on 409
+    private Result incrementConcurrently(boolean withVersion) throws Exception {
+        Long id = create("count 0").getId();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < threads; c++) {
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < increments; i++) {
+                    while (true) {
+                        TodoResponseDto current = todoService.getTodoById(id);
+                        int count = Integer.parseInt(current.getTitle().substring("count ".length()));
+                        try {
+                            todoService.patchTodo(id, new TodoRequestDto("count " + (count + 1), null, null),
+                                    withVersion ? current.getVersion() : null);
+                            break;
+                        } catch (ResponseStatusException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        int expected = threads * increments;
+        int actual = Integer.parseInt(todoService.getTodoById(id).getTitle().substring("count ".length()));
+        Result result = new Result(withVersion, expected, expected - actual, conflicts.get(), expected / (elapsed / 1_000_000_000.0));
+        return result;
+    }
+
+    private record Result(boolean withVersion, int updates, int lost, int conflicts, double updatesPerSecond) {
+
+        @Override
+        public String toString() {
+            return String.format("versioned=%s updates=%d lost=%d conflicts=%d throughput=%.0f updates/s",
+                    withVersion, updates, lost, conflicts, updatesPerSecond);
+        }
+    }
+
+    private static void assertConflict(Runnable update) {
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class, update::run);
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private TodoResponseDto create(String title) {
+        return todoService.createTodo(new TodoRequestDto(title, null, TodoStatus.PENDING), USER_ID);
+    }
+}
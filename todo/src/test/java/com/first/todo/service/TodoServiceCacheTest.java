@@ -0,0 +1,165 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.first.todo.config.CacheConfig;
+import com.first.todo.config.ReadYourWrites;
+import com.first.todo.dto.CacheStatsDto;
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.model.Todo;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.ArchivedTodoRepo;
+import com.first.todo.repository.TodoRepo;
+import com.first.todo.repository.UserRepo;
+import com.first.todo.search.TodoSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+
+class TodoServiceCacheTest {
+
+    private static final long TODO_ID = 1L;
+    private static final long USER_ID = 7L;
+
+    // stands in for the todo table, reads and writes are slowed down to widen race windows
+    private final Map<Long, Todo> table = new ConcurrentHashMap<>();
+    private TodoService todoService;
+
+    @BeforeEach
+    void setUp() {
+        TodoRepo todoRepo = mock(TodoRepo.class);
+        when(todoRepo.findById(anyLong())).thenAnswer(invocation -> {
+            Todo todo = table.get(invocation.<Long>getArgument(0));
+            pause();
+            return Optional.ofNullable(todo).map(TodoServiceCacheTest::copy);
+        });
+        when(todoRepo.findResponseById(anyLong())).thenAnswer(invocation -> {
+            Todo todo = table.get(invocation.<Long>getArgument(0));
+            pause();
+            return Optional.ofNullable(todo).map(TodoServiceCacheTest::toResponse);
+        });
+        when(todoRepo.findResponsesByUserId(anyLong())).thenAnswer(invocation -> {
+            List<TodoResponseDto> todos = new ArrayList<>();
+            for (Todo todo : table.values()) {
+                if (todo.getUserId().equals(invocation.getArgument(0))) {
+                    todos.add(toResponse(todo));
+                }
+            }
+            pause();
+            return todos;
+        });
+        when(todoRepo.saveAndFlush(any(Todo.class))).thenAnswer(invocation -> {
+            Todo todo = copy(invocation.getArgument(0));
+            pause();
+            table.put(todo.getId(), todo);
+            return copy(todo);
+        });
+
+        table.put(TODO_ID, Todo.builder().id(TODO_ID).title("v0").status(TodoStatus.PENDING).userId(USER_ID).version(0L).build());
+        CacheConfig cacheConfig = new CacheConfig();
+        TodoCache todoCache = new TodoCache(cacheConfig.cacheManager(1000, Duration.ofMinutes(10)));
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5));
+        TodoStatsCounters statsCounters = mock(TodoStatsCounters.class);
+        TodoStatusWriteBehind statusWriteBehind = new TodoStatusWriteBehind(todoRepo, todoCache, event -> { }, readYourWrites,
+                statsCounters, mock(TransactionTemplate.class), Runnable::run, new SimpleMeterRegistry(), false, 1000);
+        todoService = new TodoService(todoRepo, mock(UserRepo.class), new ObjectMapper(), todoCache, mock(Validator.class), event -> { },
+                readYourWrites, statusWriteBehind, mock(TodoSearchIndex.class), statsCounters, mock(ArchivedTodoRepo.class));
+    }
+
+    @Test
+    void readsAreServedFromCacheUntilAWriteInvalidatesThem() {
+        assertEquals("v0", todoService.getTodoById(TODO_ID).getTitle());
+        assertEquals("v0", todoService.getTodoById(TODO_ID).getTitle());
+        assertEquals(1, todoService.getTodosByUserId(USER_ID).size());
+        assertEquals(1, todoService.getTodosByUserId(USER_ID).size());
+
+        todoService.updateTodo(TODO_ID, new TodoRequestDto("v1", null, TodoStatus.COMPLETED));
+
+        assertEquals("v1", todoService.getTodoById(TODO_ID).getTitle());
+        assertEquals("v1", todoService.getTodosByUserId(USER_ID).get(0).getTitle());
+
+        CacheStatsDto stats = todoService.getCacheStats().get(CacheConfig.TODO_CACHE);
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void concurrentReadsNeverLeaveAStaleEntryBehind() throws Exception {
+        int readers = 8;
+        int updates = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(readers);
+        for (int i = 0; i < readers; i++) {
+            pool.submit(() -> {
+                started.countDown();
+                while (writing.get()) {
+                    todoService.getTodoById(TODO_ID);
+                    todoService.getTodosByUserId(USER_ID);
+                }
+            });
+        }
+        started.await();
+
+        for (int i = 1; i <= updates; i++) {
+            todoService.updateTodo(TODO_ID, new TodoRequestDto("v" + i, null, TodoStatus.IN_PROGRESS));
+            // as soon as the write returned, every later read must see it
+            assertEquals("v" + i, todoService.getTodoById(TODO_ID).getTitle());
+            assertEquals("v" + i, todoService.getTodosByUserId(USER_ID).get(0).getTitle());
+        }
+        writing.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals("v" + updates, todoService.getTodoById(TODO_ID).getTitle());
+        assertEquals("v" + updates, todoService.getTodosByUserId(USER_ID).get(0).getTitle());
+    }
+
+    private static Todo copy(Todo todo) {
+        return Todo.builder()
+                .id(todo.getId())
+                .title(todo.getTitle())
+                .description(todo.getDescription())
+                .status(todo.getStatus())
+                .userId(todo.getUserId())
+                .createdAt(todo.getCreatedAt())
+                .updatedAt(todo.getUpdatedAt())
+                .deleted(todo.isDeleted())
+                .deletedAt(todo.getDeletedAt())
+                .version(todo.getVersion())
+                .build();
+    }
+
+    private static TodoResponseDto toResponse(Todo todo) {
+        return new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getStatus(),
+                todo.getUserId(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion());
+    }
+
+    private static void pause() {
+        Thread.onSpinWait();
+        Thread.yield();
+    }
+}
@@ -0,0 +1,114 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.first.todo.dto.TodoBatchOperationDto;
+import com.first.todo.dto.TodoBatchOperationType;
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoStatsDto;
+import com.first.todo.model.TodoStatus;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs every kind of todo write with the maintained counters on and checks them against a recount from the todo table.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_stats;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "todo.stats.counters.enabled=true"
+})
+class TodoStatsCountersTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoStatsCounters statsCounters;
+    @Autowired
+    private TodoStatusWriteBehind statusWriteBehind;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void countersFollowEveryWriteAndAreOneRead() {
+        Long userId = 401L;
+        Long first = create(userId, TodoStatus.PENDING);
+        Long second = create(userId, TodoStatus.PENDING);
+        Long third = create(userId, TodoStatus.IN_PROGRESS);
+        todoService.updateTodo(first, new TodoRequestDto("first", null, TodoStatus.COMPLETED));
+        todoService.updateTodoStatus(second, TodoStatus.IN_PROGRESS);
+        todoService.deleteTodo(third);
+        todoService.applyBatch(List.of(
+                new TodoBatchOperationDto(TodoBatchOperationType.CREATE, null, userId, "batched", null, TodoStatus.COMPLETED),
+                new TodoBatchOperationDto(TodoBatchOperationType.UPDATE, second, null, "second", null, TodoStatus.PENDING),
+                new TodoBatchOperationDto(TodoBatchOperationType.DELETE, first, null, null, null, null)));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        TodoStatsDto stats = todoService.getTodoStats(userId);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals(2, stats.getTotal());
+        assertEquals(Map.of(TodoStatus.PENDING, 1L, TodoStatus.IN_PROGRESS, 0L, TodoStatus.COMPLETED, 1L), stats.getByStatus());
+        assertEquals(0.5, stats.getCompletionRate());
+        assertEquals(stats, recounted(userId));
+    }
+
+    @Test
+    void bufferedStatusUpdatesAreCountedWhenFlushed() {
+        Long userId = 402L;
+        Long todoId = create(userId, TodoStatus.PENDING);
+
+        statusWriteBehind.submit(todoId, TodoStatus.COMPLETED);
+        statusWriteBehind.flush();
+
+        assertEquals(1L, todoService.getTodoStats(userId).getByStatus().get(TodoStatus.COMPLETED));
+        assertEquals(todoService.getTodoStats(userId), recounted(userId));
+    }
+
+    @Test
+    void recountRepairsDriftedCountersAndCanRunTwice() {
+        Long userId = 404L;
+        create(userId, TodoStatus.PENDING);
+        Long gone = 405L;
+        Long goneTodo = create(gone, TodoStatus.COMPLETED);
+        jdbcTemplate.update("update todo_user_stats set total = 7, pending = 7 where user_id = ?", userId);
+        jdbcTemplate.update("delete from todo where id = ?", goneTodo);
+
+        statsCounters.recount();
+        statsCounters.recount();
+
+        assertEquals(1, todoService.getTodoStats(userId).getTotal());
+        assertEquals(1L, todoService.getTodoStats(userId).getByStatus().get(TodoStatus.PENDING));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from todo_user_stats where user_id = ?", Integer.class, gone));
+    }
+
+    @Test
+    void usersWithoutTodosHaveEmptyStats() {
+        TodoStatsDto stats = todoService.getTodoStats(403L);
+
+        assertEquals(0, stats.getTotal());
+        assertEquals(0L, stats.getByStatus().get(TodoStatus.PENDING));
+        assertEquals(0.0, stats.getCompletionRate());
+    }
+
+    private TodoStatsDto recounted(Long userId) {
+        statsCounters.recount();
+        return todoService.getTodoStats(userId);
+    }
+
+    private Long create(Long userId, TodoStatus status) {
+        return todoService.createTodo(new TodoRequestDto("todo " + status, null, status), userId).getId();
+    }
+}
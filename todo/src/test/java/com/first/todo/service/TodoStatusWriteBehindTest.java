@@ -0,0 +1,101 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.model.TodoStatus;
+import com.first.todo.repository.TodoRepo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// the interval is long enough that only the test triggers flushes
+@SpringBootTest(properties = {
+        "todo.status-write-behind.enabled=true",
+        "todo.status-write-behind.interval=1h"
+})
+class TodoStatusWriteBehindTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoStatusWriteBehind statusWriteBehind;
+    @Autowired
+    private TodoRepo todoRepo;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void updatesAreCoalescedPerTodoAndFlushedPerStatus() {
+        Long first = todoService.createTodo(new TodoRequestDto("first", null, TodoStatus.PENDING), 401L).getId();
+        Long second = todoService.createTodo(new TodoRequestDto("second", null, TodoStatus.PENDING), 401L).getId();
+        double received = count("todo.status.write-behind.received");
+        double written = count("todo.status.write-behind.written");
+
+        assertNull(todoService.updateTodoStatus(first, TodoStatus.IN_PROGRESS));
+        todoService.updateTodoStatus(first, TodoStatus.PENDING);
+        todoService.updateTodoStatus(first, TodoStatus.COMPLETED);
+        todoService.updateTodoStatus(second, TodoStatus.COMPLETED);
+
+        // acknowledged but not written yet, reads on this instance already see it
+        assertEquals(TodoStatus.PENDING, todoRepo.findResponseById(first).orElseThrow().getStatus());
+        assertEquals(TodoStatus.COMPLETED, todoService.getTodoById(first).getStatus());
+        assertEquals(TodoStatus.COMPLETED, todoService.getTodosByUserId(401L).get(0).getStatus());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statusWriteBehind.flush();
+        // one UPDATE for the single status, one SELECT for the owners
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        assertEquals(TodoStatus.COMPLETED, todoRepo.findResponseById(first).orElseThrow().getStatus());
+        assertEquals(TodoStatus.COMPLETED, todoRepo.findResponseById(second).orElseThrow().getStatus());
+        assertEquals(4, count("todo.status.write-behind.received") - received);
+        assertEquals(2, count("todo.status.write-behind.written") - written);
+    }
+
+    @Test
+    void synchronousWritesTakeTheBufferedStatusOut() {
+        Long updated = todoService.createTodo(new TodoRequestDto("updated", null, TodoStatus.PENDING), 402L).getId();
+        Long patched = todoService.createTodo(new TodoRequestDto("patched", null, TodoStatus.PENDING), 402L).getId();
+        Long versioned = todoService.createTodo(new TodoRequestDto("versioned", null, TodoStatus.PENDING), 402L).getId();
+
+        todoService.updateTodoStatus(updated, TodoStatus.COMPLETED);
+        todoService.updateTodo(updated, new TodoRequestDto("updated again", null, TodoStatus.IN_PROGRESS));
+        todoService.updateTodoStatus(patched, TodoStatus.COMPLETED);
+        todoService.patchTodo(patched, new TodoRequestDto("patched again", null, null), null);
+        todoService.updateTodoStatus(versioned, TodoStatus.COMPLETED);
+        todoService.updateTodoStatus(versioned, TodoStatus.IN_PROGRESS, 0L);
+        statusWriteBehind.flush();
+
+        // the later update wins, the patch carries the status that was acknowledged before it
+        assertEquals(TodoStatus.IN_PROGRESS, todoRepo.findResponseById(updated).orElseThrow().getStatus());
+        assertEquals(TodoStatus.COMPLETED, todoRepo.findResponseById(patched).orElseThrow().getStatus());
+        assertEquals("patched again", todoRepo.findResponseById(patched).orElseThrow().getTitle());
+        assertEquals(TodoStatus.IN_PROGRESS, todoRepo.findResponseById(versioned).orElseThrow().getStatus());
+        assertEquals(TodoStatus.IN_PROGRESS, todoService.getTodoById(versioned).getStatus());
+    }
+
+    @Test
+    void unknownTodosAreDroppedAtFlush() {
+        double dropped = count("todo.status.write-behind.dropped");
+
+        todoService.updateTodoStatus(999_999L, TodoStatus.COMPLETED);
+        statusWriteBehind.flush();
+
+        assertEquals(1, count("todo.status.write-behind.dropped") - dropped);
+    }
+
+    private double count(String name) {
+        return registry.counter(name).count();
+    }
+}
@@ -0,0 +1,119 @@
+package com.first.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.first.todo.dto.TodoRequestDto;
+import com.first.todo.dto.TodoResponseDto;
+import com.first.todo.dto.TodoSyncResponseDto;
+import com.first.todo.model.TodoStatus;
+
+@SpringBootTest
+class TodoSyncTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TombstonePurgeJob purgeJob;
+
+    @Test
+    void syncReturnsOnlyChangesAfterTheToken() {
+        Long userId = 101L;
+        Long kept = createTodo(userId, "kept").getId();
+        Long edited = createTodo(userId, "edited").getId();
+        Long removed = createTodo(userId, "removed").getId();
+
+        TodoSyncResponseDto initial = todoService.syncTodos(userId, null, null);
+        assertEquals(3, initial.getChanged().size());
+        assertFalse(initial.isHasMore());
+
+        todoService.updateTodo(edited, new TodoRequestDto("edited again", null, TodoStatus.COMPLETED));
+        todoService.deleteTodo(removed);
+
+        TodoSyncResponseDto delta = todoService.syncTodos(userId, initial.getNextToken(), null);
+        assertEquals(List.of(edited), delta.getChanged().stream().map(TodoResponseDto::getId).toList());
+        assertEquals(List.of(removed), delta.getDeleted());
+
+        TodoSyncResponseDto empty = todoService.syncTodos(userId, delta.getNextToken(), null);
+        assertTrue(empty.getChanged().isEmpty() && empty.getDeleted().isEmpty());
+        assertEquals(delta.getNextToken(), empty.getNextToken());
+        // the tombstone is invisible to normal reads
+        assertEquals(List.of(kept, edited), todoService.getTodosByUserId(userId).stream().map(TodoResponseDto::getId).toList());
+    }
+
+    @Test
+    void syncPagesThroughChangesWithTheSameTimestamp() {
+        Long userId = 102L;
+        for (int i = 0; i < 5; i++) {
+            createTodo(userId, "todo " + i);
+        }
+
+        String token = null;
+        int seen = 0;
+        boolean hasMore = true;
+        while (hasMore) {
+            TodoSyncResponseDto page = todoService.syncTodos(userId, token, 2);
+            seen += page.getChanged().size();
+            hasMore = page.isHasMore();
+            token = page.getNextToken();
+        }
+        assertEquals(5, seen);
+    }
+
+    @Test
+    void tombstonesArePurgedAfterTheRetentionAndOldTokensAreRefused() {
+        Long userId = 103L;
+        Long todoId = createTodo(userId, "short lived").getId();
+        todoService.deleteTodo(todoId);
+        purgeJob.purgeDeletedBefore(LocalDateTime.now().plusSeconds(1));
+
+        assertTrue(todoService.syncTodos(userId, null, null).getDeleted().isEmpty());
+        assertEquals(0, purgeJob.purge());
+
+        ResponseStatusException expired = assertThrows(ResponseStatusException.class,
+                () -> todoService.syncTodos(userId, "0.0", null));
+        assertEquals(HttpStatus.GONE, expired.getStatusCode());
+        ResponseStatusException invalid = assertThrows(ResponseStatusException.class,
+                () -> todoService.syncTodos(userId, "garbage", null));
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+
+    @Test
+    void purgeRemovesExpiredTombstonesChunkByChunk() {
+        Long userId = 104L;
+        List<Long> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Long todoId = createTodo(userId, "expired " + i).getId();
+            todoService.deleteTodo(todoId);
+            expired.add(todoId);
+        }
+        LocalDateTime cutoff = LocalDateTime.now();
+        Long recent = createTodo(userId, "recent").getId();
+        todoService.deleteTodo(recent);
+        Long kept = createTodo(userId, "kept").getId();
+
+        // two rows per chunk in the test configuration
+        assertEquals(5, purgeJob.purgeDeletedBefore(cutoff));
+
+        TodoSyncResponseDto sync = todoService.syncTodos(userId, null, null);
+        assertEquals(List.of(recent), sync.getDeleted());
+        assertEquals(List.of(kept), sync.getChanged().stream().map(TodoResponseDto::getId).toList());
+        assertEquals(0, purgeJob.purgeDeletedBefore(cutoff));
+    }
+
+    private TodoResponseDto createTodo(Long userId, String title) {
+        return todoService.createTodo(new TodoRequestDto(title, null, TodoStatus.PENDING), userId);
+    }
+}